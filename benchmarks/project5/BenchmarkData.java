@@ -0,0 +1,38 @@
+package project5;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * The data set shared by the benchmarks
+ * The .csv is read from the path in the system property "data", by default
+ * Baby_Names__Beginning_2007.csv in the working directory
+ * @author Joshua Donelly-Higgins
+ */
+final class BenchmarkData {
+    private BenchmarkData() {
+    }
+
+    /**
+     * Gets the .csv file of the benchmarks
+     * @return the file
+     * @throws IOException if the file does not exist
+     */
+    static File file() throws IOException {
+        File file = new File(System.getProperty("data", "Baby_Names__Beginning_2007.csv"));
+        if (!file.canRead()) throw new IOException("Cannot read " + file.getAbsolutePath() + "; set -Ddata=path.");
+        return file;
+    }
+
+    /**
+     * Loads every year of the .csv
+     * @return years sorted by year
+     * @throws IOException if the file cannot be read
+     */
+    static ArrayList<YearNames> load() throws IOException {
+        CSVLoader loader = new CSVLoader();
+        loader.load(file());
+        return loader.getYears();
+    }
+}
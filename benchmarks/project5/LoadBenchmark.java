@@ -0,0 +1,53 @@
+package project5;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to load every year of Baby_Names__Beginning_2007.csv, sequentially and in parallel
+ * @author Joshua Donelly-Higgins
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoadBenchmark {
+    @Param({"1", "4"})
+    public int threads;
+
+    private File file;
+
+    @Setup
+    public void setup() throws IOException {
+        file = BenchmarkData.file();
+    }
+
+    /**
+     * Loads the whole file into YearNames objects
+     * @return the years, so they are not optimized away
+     * @throws IOException if the file cannot be read
+     */
+    @Benchmark
+    public ArrayList<YearNames> load() throws IOException {
+        CSVLoader loader = new CSVLoader();
+        if (threads > 1) loader.loadParallel(file, threads);
+        else loader.load(file);
+        return loader.getYears();
+    }
+}
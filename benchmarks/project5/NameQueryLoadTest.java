@@ -0,0 +1,150 @@
+package project5;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Load test for NameQueryServer on the local machine
+ * Loads a .csv once, starts a server on a free localhost port and sends requests from several
+ * client threads, each waiting for its answer before sending the next one.
+ * The requests are a random mix of the four endpoints over names and counties of the data.
+ * Prints the throughput and the latency percentiles of all requests.
+ *
+ * Usage: NameQueryLoadTest file [clients] [requests per client]
+ * @author Joshua Donelly-Higgins
+ */
+public class NameQueryLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage Error: the program expects file name as an argument.\n");
+            System.exit(1);
+        }
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+
+        //measure the server as NYSBabyNames --serve runs it, with TCP_NODELAY
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) System.setProperty("sun.net.httpserver.nodelay", "true");
+
+        CSVLoader loader = new CSVLoader();
+        loader.load(new File(args[0]));
+        ArrayList<YearNames> years = loader.getYears();
+        TreeSet<String> nameSet = new TreeSet<>();
+        TreeSet<String> countySet = new TreeSet<>();
+        for (YearNames element : years) {
+            element.forEach(name -> {
+                nameSet.add(name.getName());
+                countySet.add(name.getCounty());
+            });
+        }
+        String[] names = nameSet.toArray(new String[0]);
+        String[] counties = countySet.toArray(new String[0]);
+        int firstYear = years.get(0).getYear();
+        int lastYear = years.get(years.size() - 1).getYear();
+
+        NameQueryServer server = new NameQueryServer(new NameQueryService(years),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+        String base = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+        HttpClient client = HttpClient.newHttpClient();
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+
+        try {
+            //one round to warm up, then the measured round
+            for (int round = 0; round < 2; round++) {
+                long start = System.nanoTime();
+                ArrayList<Future<long[]>> results = new ArrayList<>();
+                for (int c = 0; c < clients; c++) {
+                    Random random = new Random(c);
+                    results.add(pool.submit(() -> {
+                        long[] latencies = new long[requests];
+                        for (int i = 0; i < requests; i++) {
+                            String path = randomPath(random, names, counties, firstYear, lastYear);
+                            HttpRequest request = HttpRequest.newBuilder(URI.create(base + path)).GET().build();
+                            long sent = System.nanoTime();
+                            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                            latencies[i] = System.nanoTime() - sent;
+                            if (response.statusCode() != 200) throw new IOException("Status " + response.statusCode() + " for " + path);
+                        }
+                        return latencies;
+                    }));
+                }
+
+                long[] all = new long[clients * requests];
+                for (int c = 0; c < clients; c++) System.arraycopy(results.get(c).get(), 0, all, c * requests, requests);
+                long elapsed = System.nanoTime() - start;
+                if (round == 0) continue;
+
+                Arrays.sort(all);
+                System.out.printf("%d clients, %d requests in %.2f s (%.0f requests/s)%n",
+                        clients, all.length, elapsed / 1e9, all.length / (elapsed / 1e9));
+                System.out.printf("latency ms: p50 %.3f, p90 %.3f, p99 %.3f, p99.9 %.3f, max %.3f%n",
+                        percentile(all, 50), percentile(all, 90), percentile(all, 99), percentile(all, 99.9),
+                        all[all.length - 1] / 1e6);
+            }
+        } finally {
+            pool.shutdown();
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Builds a random request path
+     * @param random source of randomness
+     * @param names names to query
+     * @param counties counties to query
+     * @param firstYear first year with data
+     * @param lastYear last year with data
+     * @return path and query string
+     */
+    private static String randomPath(Random random, String[] names, String[] counties, int firstYear, int lastYear) {
+        String name = encode(names[random.nextInt(names.length)]);
+        String county = encode(counties[random.nextInt(counties.length)]);
+        switch (random.nextInt(4)) {
+            case 0:
+                return "/name?name=" + name;
+            case 1:
+                return "/county?county=" + county;
+            case 2:
+                return "/fraction?name=" + name + "&county=" + (random.nextBoolean() ? "all" : county);
+            default:
+                int year = firstYear + random.nextInt(lastYear - firstYear + 1);
+                return "/top?year=" + year + "&k=10&county=" + county + "&gender=" + (random.nextBoolean() ? "m" : "f");
+        }
+    }
+
+    /**
+     * Encodes a query parameter value
+     * @param value the value
+     * @return URL-encoded value
+     */
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets a percentile of sorted latencies
+     * @param sorted latencies in nanoseconds, sorted
+     * @param percent the percentile, from 0 to 100
+     * @return latency in milliseconds
+     */
+    private static double percentile(long[] sorted, double percent) {
+        int index = (int) Math.ceil(percent / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+}
@@ -0,0 +1,122 @@
+package project5;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of point (name) and county lookups on the largest year
+ * Every call queries the next of a fixed random sequence of existing names and counties
+ * Run with -prof gc to also get the allocation rate per query
+ * @author Joshua Donelly-Higgins
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryBenchmark {
+    private static final int QUERIES = 1024; //power of two, so the next query is found with a mask
+
+    private YearNames year;
+    private String[] names;
+    private String[] counties;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        for (YearNames element : BenchmarkData.load()) {
+            if (year == null || element.size() > year.size()) year = element;
+        }
+        TreeSet<String> nameSet = new TreeSet<>();
+        TreeSet<String> countySet = new TreeSet<>();
+        year.forEach(name -> {
+            nameSet.add(name.getName());
+            countySet.add(name.getCounty());
+        });
+        String[] allNames = nameSet.toArray(new String[0]);
+        String[] allCounties = countySet.toArray(new String[0]);
+
+        Random random = new Random(42);
+        names = new String[QUERIES];
+        counties = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            names[i] = allNames[random.nextInt(allNames.length)];
+            counties[i] = allCounties[random.nextInt(allCounties.length)];
+        }
+    }
+
+    /**
+     * AVLTree.searchName into a new list
+     * @return the matches
+     */
+    @Benchmark
+    public ArrayList<Name> searchName() {
+        int i = next++ & (QUERIES - 1);
+        return year.searchName(names[i], year.root, new ArrayList<>());
+    }
+
+    /**
+     * AVLTree.searchCounty into a new list, which visits the whole tree
+     * @return the matches
+     */
+    @Benchmark
+    public ArrayList<Name> searchCounty() {
+        int i = next++ & (QUERIES - 1);
+        return year.searchCounty(counties[i], year.root, new ArrayList<>());
+    }
+
+    /**
+     * YearNames.getCountByName
+     * @return the count
+     */
+    @Benchmark
+    public int getCountByName() {
+        int i = next++ & (QUERIES - 1);
+        return year.getCountByName(names[i]);
+    }
+
+    /**
+     * YearNames.getTotalCountCounty
+     * @return the count
+     */
+    @Benchmark
+    public int getTotalCountCounty() {
+        int i = next++ & (QUERIES - 1);
+        return year.getTotalCountCounty(counties[i]);
+    }
+
+    /**
+     * YearNames.getFractionByNameCounty for a name within a county
+     * @return the fraction
+     */
+    @Benchmark
+    public double getFractionByNameCounty() {
+        int i = next++ & (QUERIES - 1);
+        return year.getFractionByNameCounty(names[i], counties[i]);
+    }
+
+    /**
+     * YearNames.getFractionByNameCounty for a name in all counties
+     * @return the fraction
+     */
+    @Benchmark
+    public double getFractionByNameAllCounties() {
+        int i = next++ & (QUERIES - 1);
+        return year.getFractionByNameCounty(names[i], "all");
+    }
+}
@@ -0,0 +1,49 @@
+package project5;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to split every line of Baby_Names__Beginning_2007.csv with NYSBabyNames.splitCSVLine
+ * The lines are read into memory first, so only the splitting is measured
+ * @author Joshua Donelly-Higgins
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SplitBenchmark {
+    private List<String> lines;
+
+    @Setup
+    public void setup() throws IOException {
+        lines = Files.readAllLines(BenchmarkData.file().toPath(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Splits every line
+     * @return number of fields, so the work is not optimized away
+     */
+    @Benchmark
+    public long splitCSVLine() {
+        long fields = 0;
+        for (String line : lines) fields += NYSBabyNames.splitCSVLine(line).size();
+        return fields;
+    }
+}
@@ -0,0 +1,79 @@
+package project5;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert throughput of AVLTree and YearNames, with the names of the largest year in random order
+ * Each invocation builds a whole tree from all of them, so scores are trees built per second
+ * @author Joshua Donelly-Higgins
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TreeBenchmark {
+    private ArrayList<Name> names;
+    private int year;
+
+    @Setup
+    public void setup() throws IOException {
+        YearNames largest = null;
+        for (YearNames element : BenchmarkData.load()) {
+            if (largest == null || element.size() > largest.size()) largest = element;
+        }
+        names = new ArrayList<>(largest.size());
+        largest.forEach(names::add);
+        Collections.shuffle(names, new Random(42));
+        year = largest.getYear();
+    }
+
+    /**
+     * AVLTree.add of every name
+     * @return the tree, so it is not optimized away
+     */
+    @Benchmark
+    public AVLTree<Name> avlTreeAdd() {
+        AVLTree<Name> tree = new AVLTree<>();
+        for (Name name : names) tree.add(name);
+        return tree;
+    }
+
+    /**
+     * YearNames.add of every name, which also maintains the county index and leaderboards
+     * @return the tree, so it is not optimized away
+     */
+    @Benchmark
+    public YearNames yearNamesAdd() {
+        YearNames tree = new YearNames(year);
+        for (Name name : names) tree.add(name);
+        return tree;
+    }
+
+    /**
+     * YearNames.addAll of every name at once
+     * @return the tree, so it is not optimized away
+     */
+    @Benchmark
+    public YearNames yearNamesAddAll() {
+        YearNames tree = new YearNames(year);
+        tree.addAll(names);
+        return tree;
+    }
+}
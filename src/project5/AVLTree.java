@@ -1,6 +1,8 @@
 package project5;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.function.Consumer;
 
 /**
  * AVLTree implementation based off of BST recursive implementation; works with Name class
@@ -15,8 +17,8 @@ public class AVLTree<T extends Comparable<T>>{
     protected Node<T> root;
     // current number of nodes in the tree
     protected int numOfElements;
-    //helper variable used by the remove methods
-    private boolean found;
+    // number of single rotations performed since the tree was created
+    protected long rotations;
 
     /**
      * Default constructor that creates an empty tree.
@@ -31,12 +33,14 @@ public class AVLTree<T extends Comparable<T>>{
      * item is not found in the tree, the tree remains unchanged.
      *
      * @param target the item to be removed from this tree
+     * @return true if the item was found and removed, false otherwise
      */
     public boolean remove(T target)
     {
+        if (target == null || !contains(target)) return false;
         root = recRemove(target, root);
-        if (found) numOfElements--;
-        return found;
+        numOfElements--;
+        return true;
     }
 
     /*
@@ -47,16 +51,14 @@ public class AVLTree<T extends Comparable<T>>{
     private Node<T> recRemove(T target, Node<T> node)
     {
         if (node == null)
-            found = false;
+            return null;
         else if (target.compareTo(node.data) < 0)
             node.left = recRemove(target, node.left);
         else if (target.compareTo(node.data) > 0)
             node.right = recRemove(target, node.right );
-        else {
+        else
             node = removeNode(node);
-            found = true;
-        }
-        return node;
+        return rebalance(node);
     }
 
     /*
@@ -95,6 +97,23 @@ public class AVLTree<T extends Comparable<T>>{
         return temp.data;
     }
 
+    /**
+     * Determines if an item equal to the given one is stored in this tree.
+     *
+     * @param target the item to look for
+     * @return true if an equal item is found, false otherwise
+     */
+    public boolean contains(T target)
+    {
+        Node<T> node = root;
+        while (node != null) {
+            int comparison = target.compareTo(node.data);
+            if (comparison == 0) return true;
+            node = comparison < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
     /**
      * Determines the number of elements stored in this BST.
      *
@@ -104,6 +123,22 @@ public class AVLTree<T extends Comparable<T>>{
         return numOfElements;
     }
 
+    /**
+     * Gets the height of the tree
+     * @return number of nodes on the longest path from the root to a leaf, 0 if the tree is empty
+     */
+    public int getHeight() {
+        return getHeight(root);
+    }
+
+    /**
+     * Getter for rotations
+     * @return number of single rotations done by add and remove; a double rotation counts twice
+     */
+    public long getRotations() {
+        return rotations;
+    }
+
     /**
      * Returns a string representation of this tree using an inorder traversal .
      * @see java.lang.Object#toString()
@@ -203,6 +238,7 @@ public class AVLTree<T extends Comparable<T>>{
 
         protected int height;
         protected int desc; 		//num of descendants
+        protected long sum;         //sum of the weights of this node and its descendants
 
 
         /**
@@ -218,6 +254,7 @@ public class AVLTree<T extends Comparable<T>>{
             right = null;
             height = 1;
             desc = 0;
+            sum = 0;
         }
 
 
@@ -267,19 +304,220 @@ public class AVLTree<T extends Comparable<T>>{
      * @param n node
      * @return height
      */
-    private int getHeight(Node n) {
+    private int getHeight(Node<T> n) {
         if (n == null) return 0;
         return n.height;
     }
 
+    /**
+     * Gets the number of nodes in a subtree, error-checking for null values
+     * @param n root of the subtree
+     * @return number of nodes
+     */
+    private int getSize(Node<T> n) {
+        if (n == null) return 0;
+        return n.desc + 1;
+    }
+
+    /**
+     * Gets the sum of the weights in a subtree, error-checking for null values
+     * @param n root of the subtree
+     * @return sum of weights
+     */
+    private long getSum(Node<T> n) {
+        if (n == null) return 0;
+        return n.sum;
+    }
+
+    /**
+     * Weight of an item, summed per subtree for weightOfFirst
+     * Subclasses override this to weigh items by a value such as a count
+     * The weight of an item must not change while it is in the tree
+     * @param item the item
+     * @return weight of the item, 1 by default
+     */
+    protected long weight(T item) {
+        return 1;
+    }
+
+    /**
+     * Creates a node for an item
+     * @param data item to store
+     * @return new leaf node
+     */
+    private Node<T> newNode(T data) {
+        Node<T> node = new Node<>(data);
+        node.sum = weight(data);
+        return node;
+    }
+
+    /**
+     * Recomputes height, number of descendants and sum of weights of a node from its children
+     * @param n node to update
+     */
+    private void update(Node<T> n) {
+        n.height = Math.max(getHeight(n.left), getHeight(n.right)) + 1;
+        n.desc = getSize(n.left) + getSize(n.right);
+        n.sum = getSum(n.left) + getSum(n.right) + weight(n.data);
+    }
+
     /**
      * Adds item to tree, calling on private method
+     * If an equal item is already stored, the tree remains unchanged
      * @param item Name to insert
+     * @return true if a new node was created, false if item is null or a duplicate
      */
-    public void add(T item) {
-        if (item == null) return;
+    public boolean add(T item) {
+        if (item == null) return false;
+        //the recursive add returns duplicates unchanged, so the size of the tree tells whether a node was created
+        int before = getSize(root);
         root = add(item, root);
+        if (getSize(root) == before) return false;
         numOfElements += 1;
+        return true;
+    }
+
+    /**
+     * Adds item to tree, or merges it into the equal item that is already stored
+     * Merging stores merge(stored, item) in the existing node; the shape of the tree does not change,
+     * so no rebalancing is done and only the subtree sums on the path to the node are updated
+     * @param item item to insert or merge
+     * @return true if a new node was created, false if item was merged or is null
+     */
+    public boolean addOrMerge(T item) {
+        if (item == null) return false;
+        T stored = find(item);
+        if (stored == null) return add(item);
+        replace(merge(stored, item));
+        return false;
+    }
+
+    /**
+     * Combines an item with the equal item that is already stored, for addOrMerge
+     * Subclasses override this to accumulate values such as counts
+     * @param stored the item in the tree
+     * @param item the item being added
+     * @return the item to store instead, which must be equal to both; stored by default
+     */
+    protected T merge(T stored, T item) {
+        return stored;
+    }
+
+    /**
+     * Gets the stored item that is equal to the given one
+     * @param target the item to look for
+     * @return the stored item, or null if there is none
+     */
+    public T find(T target) {
+        Node<T> node = root;
+        while (node != null) {
+            int comparison = target.compareTo(node.data);
+            if (comparison == 0) return node.data;
+            node = comparison < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    /**
+     * Replaces the stored item that is equal to the given one, without changing the shape of the tree
+     * The subtree sums on the path to the node are updated for the change of weight
+     * @param item the replacement item
+     * @return true if an equal item was found and replaced, false otherwise
+     */
+    protected boolean replace(T item) {
+        if (item == null) return false;
+        Node<T>[] path = newStack(root);
+        int top = 0;
+        Node<T> node = root;
+        while (node != null) {
+            int comparison = item.compareTo(node.data);
+            if (comparison == 0) {
+                long delta = weight(item) - weight(node.data);
+                node.data = item;
+                node.sum += delta;
+                for (int i = 0; i < top; i++) path[i].sum += delta;
+                return true;
+            }
+            path[top++] = node;
+            node = comparison < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    /**
+     * Adds all items to the tree at once
+     * The items are sorted together with the current contents and a perfectly balanced tree
+     * is built bottom-up, instead of rebalancing after each insertion
+     * As with add, null items are ignored and only the first of several equal items is kept
+     * @param items items to insert
+     */
+    public void addAll(Collection<? extends T> items) {
+        bulkAdd(items, false);
+    }
+
+    /**
+     * Adds all items to the tree at once, replacing stored items by equal ones
+     * Built like addAll, but the last of several equal items is kept, and an item replaces an equal stored item
+     * @param items items to insert, oldest first
+     */
+    public void addOrReplaceAll(Collection<? extends T> items) {
+        bulkAdd(items, true);
+    }
+
+    /**
+     * Sorts the items together with the current contents and builds a balanced tree from them
+     * @param items items to insert
+     * @param keepLast true to keep the last of several equal items, false to keep the first
+     */
+    private void bulkAdd(Collection<? extends T> items, boolean keepLast) {
+        ArrayList<T> sorted = new ArrayList<>(numOfElements + items.size());
+        collect(root, sorted);
+        for (T item : items) {
+            if (item != null) sorted.add(item);
+        }
+        sorted.sort(null); //stable, so equal items stay in the order stored, then given
+
+        //drop duplicates
+        int unique = 0;
+        for (int i = 0; i < sorted.size(); i++) {
+            if (unique == 0 || sorted.get(i).compareTo(sorted.get(unique - 1)) != 0) {
+                sorted.set(unique++, sorted.get(i));
+            } else if (keepLast) {
+                sorted.set(unique - 1, sorted.get(i));
+            }
+        }
+
+        root = build(sorted, 0, unique - 1);
+        numOfElements = unique;
+    }
+
+    /**
+     * Adds the items of a subtree to a list in order
+     * @param node root of the subtree
+     * @param output output ArrayList
+     */
+    private void collect(Node<T> node, ArrayList<T> output) {
+        if (node == null) return;
+        collect(node.left, output);
+        output.add(node.data);
+        collect(node.right, output);
+    }
+
+    /**
+     * Builds a perfectly balanced subtree from a range of a sorted list
+     * @param sorted sorted items without duplicates
+     * @param low index of the first item of the range
+     * @param high index of the last item of the range
+     * @return root of the subtree, null for an empty range
+     */
+    private Node<T> build(ArrayList<T> sorted, int low, int high) {
+        if (low > high) return null;
+        int middle = (low + high) >>> 1;
+        Node<T> node = newNode(sorted.get(middle));
+        node.left = build(sorted, low, middle - 1);
+        node.right = build(sorted, middle + 1, high);
+        update(node);
+        return node;
     }
 
     /**
@@ -290,7 +528,7 @@ public class AVLTree<T extends Comparable<T>>{
      * @return
      */
     private Node<T> add(T data, Node<T> parentNode) {
-        if (parentNode == null) return new Node<>(data); //create new node with item
+        if (parentNode == null) return newNode(data); //create new node with item
         if (data.compareTo(parentNode.data) < 0) { //move left
             parentNode.left = add(data, parentNode.left);
         } else if (data.compareTo(parentNode.data) > 0) { //move right
@@ -312,8 +550,8 @@ public class AVLTree<T extends Comparable<T>>{
      */
     private Node<T> balanceTree (T data, Node<T> parentNode) {
 
-        //update height of ancestor node and set ancestor balance
-        parentNode.height = Math.max(getHeight(parentNode.left), getHeight(parentNode.right)) + 1;
+        //update height, size and sum of ancestor node and set ancestor balance
+        update(parentNode);
         int ancestorBalance = balance(parentNode);
         //fast return for balanced nodes
         if (ancestorBalance >= -1 && ancestorBalance <= 1) return parentNode;
@@ -347,26 +585,48 @@ public class AVLTree<T extends Comparable<T>>{
      * Perform the correct rotation on the child with greater height
      * @param parent node with an unbalanced child
      */
-    private int balance(Node parent) {
+    private int balance(Node<T> parent) {
         if (parent == null) return 0;
 
         return getHeight(parent.left) - getHeight(parent.right);
     }
 
+    /**
+     * Rebalances a node after one of its subtrees lost a level
+     * auxillary method for remove; unlike balanceTree it decides the case from the child balance
+     * @param n node to rebalance, may be null
+     * @return the new parent node
+     */
+    private Node<T> rebalance(Node<T> n) {
+        if (n == null) return null;
+        update(n);
+        int nodeBalance = balance(n);
+        if (nodeBalance > 1) {
+            if (balance(n.left) < 0) n.left = leftRotate(n.left); //left, right
+            return rightRotate(n);
+        }
+        if (nodeBalance < -1) {
+            if (balance(n.right) > 0) n.right = rightRotate(n.right); //right, left
+            return leftRotate(n);
+        }
+        return n;
+    }
+
     /**
      * left rotation
      * @param n root node
      */
-    private Node leftRotate(Node n) {
+    private Node<T> leftRotate(Node<T> n) {
         //perform rotation
-        Node node1 = n.right;
-        Node node2 = node1.left;
+        Node<T> node1 = n.right;
+        Node<T> node2 = node1.left;
         n.right = node2;
         node1.left = n;
+        rotations++;
 
-        //update height
-        n.height = 1 + Math.max(getHeight(n.left), getHeight(n.right));
-        node1.height = 1 + Math.max(getHeight(node1.left), getHeight(node1.right));
+        //update height, size and sum
+        update(n);
+        update(node1);
         return node1;
     }
 
@@ -374,19 +634,124 @@ public class AVLTree<T extends Comparable<T>>{
      * right rotation
      * @param n root node
      */
-    private Node rightRotate(Node n) {
+    private Node<T> rightRotate(Node<T> n) {
         //perform rotation
-        Node node1 = n.left;
-        Node node2 = node1.right;
+        Node<T> node1 = n.left;
+        Node<T> node2 = node1.right;
         n.left = node2;
         node1.right = n;
+        rotations++;
 
-        //update height
-        n.height = 1 + Math.max(getHeight(n.left), getHeight(n.right));
-        node1.height = 1 + Math.max(getHeight(node1.left), getHeight(node1.right));
+        //update height, size and sum
+        update(n);
+        update(node1);
         return node1;
     }
 
+    /**
+     * Gets the number of items in the tree that are before the given item
+     * Uses the descendant counts of the nodes, so it takes O(log n)
+     * @param item the item to rank, does not need to be in the tree
+     * @return number of smaller items
+     */
+    public int rank(T item) {
+        int smaller = 0;
+        Node<T> node = root;
+        while (node != null) {
+            int comparison = item.compareTo(node.data);
+            if (comparison <= 0) {
+                if (comparison == 0) return smaller + getSize(node.left);
+                node = node.left;
+            } else {
+                smaller += getSize(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return smaller;
+    }
+
+    /**
+     * Gets the item at a position of the in-order sequence of the tree
+     * Uses the descendant counts of the nodes, so it takes O(log n)
+     * @param index position starting at 0
+     * @return the item at that position
+     */
+    public T select(int index) {
+        if (index < 0 || index >= getSize(root)) throw new IllegalArgumentException("Invalid index given.");
+        Node<T> node = root;
+        while (true) {
+            int leftSize = getSize(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.data;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Gets the sum of the weights of the first items of the in-order sequence
+     * Uses the subtree sums of the nodes, so it takes O(log n)
+     * @param count number of items to include
+     * @return sum of their weights
+     */
+    public long weightOfFirst(int count) {
+        long total = 0;
+        Node<T> node = root;
+        while (node != null && count > 0) {
+            int leftSize = getSize(node.left);
+            if (count <= leftSize) {
+                node = node.left;
+            } else {
+                total += getSum(node.left) + weight(node.data);
+                count -= leftSize + 1;
+                node = node.right;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Performs an action on every item of the tree, in order
+     * The traversal is iterative and only allocates a stack the size of the tree height
+     * @param action action to perform
+     */
+    public void forEach(Consumer<? super T> action) {
+        Node<T>[] stack = newStack(root);
+        int top = 0;
+        Node<T> node = root;
+        while (node != null || top > 0) {
+            while (node != null) { //go as far left as possible
+                stack[top++] = node;
+                node = node.left;
+            }
+            node = stack[--top];
+            action.accept(node.data);
+            node = node.right;
+        }
+    }
+
+    /**
+     * Returns the first items of the tree, in order
+     * The traversal is iterative and stops after count items
+     * @param count maximum number of items to return
+     * @return ArrayList of at most count items
+     */
+    public ArrayList<T> first(int count) {
+        ArrayList<T> output = new ArrayList<>(Math.max(0, Math.min(count, numOfElements)));
+        Node<T>[] stack = newStack(root);
+        int top = pushLeft(stack, 0, root);
+        while (top > 0 && output.size() < count) {
+            Node<T> node = stack[--top];
+            output.add(node.data);
+            top = pushLeft(stack, top, node.right);
+        }
+        return output;
+    }
+
     /**
      * returns ArrayList of name objects with names that match
      * a binary search is used to find names since they are the primary key
@@ -396,33 +761,142 @@ public class AVLTree<T extends Comparable<T>>{
      * @return output
      */
     public ArrayList<Name> searchName (String name, Node<Name> node, ArrayList<Name> output) {
-        if (node.data.getName().equals(name)) {
-            output.add(node.data);
-            if (node.right != null) searchName(name, node.right, output);
-            if (node.left != null) searchName(name, node.left, output);
-        } else {
-            if (node.right != null && name.compareTo(node.data.getName()) > 0) { //search right
-                searchName(name, node.right, output);
-            }
-            if (node.left != null && name.compareTo(node.data.getName()) < 0) { //search left
-                searchName(name, node.left, output);
+        forEachName(name, node, output::add);
+        return output;
+    }
+
+    /**
+     * Performs an action on every name object with a name that matches, in order
+     * Name objects are ordered by name first, so the matches form one range of the tree:
+     * the search seeks to the first match and then walks in order until the name changes
+     * @param name name to find
+     * @param node root of the subtree to search
+     * @param action action to perform
+     */
+    public void forEachName (String name, Node<Name> node, Consumer<Name> action) {
+        Node<Name>[] stack = newStack(node);
+        int top = seek(stack, node, name);
+        while (top > 0) {
+            Node<Name> current = stack[--top];
+            if (!current.data.getName().equals(name)) break;
+            action.accept(current.data);
+            top = pushLeft(stack, top, current.right);
+        }
+    }
+
+    /**
+     * returns ArrayList of the distinct names that start with the prefix, in alphabetical order
+     * the walk stops as soon as limit names are found
+     * @param prefix beginning of the names to find
+     * @param node root of the subtree to search
+     * @param limit maximum number of names to return
+     * @return output
+     */
+    public ArrayList<String> searchNamePrefix (String prefix, Node<Name> node, int limit) {
+        ArrayList<String> output = new ArrayList<>();
+        Node<Name>[] stack = newStack(node);
+        int top = seek(stack, node, prefix);
+        while (top > 0) {
+            Node<Name> current = stack[--top];
+            String name = current.data.getName();
+            if (!name.startsWith(prefix)) break;
+            if (output.isEmpty() || !output.get(output.size() - 1).equals(name)) {
+                if (output.size() == limit) break;
+                output.add(name);
             }
+            top = pushLeft(stack, top, current.right);
         }
         return output;
     }
 
     /**
      * returns ArrayList of name objects with counties that match
-     * a simple inorder traversal is used to find counties because county is not the primary key
+     * a simple iterative inorder traversal is used to find counties because county is not the primary key
      * @param county county to find
      * @param node current node
      * @param output output ArrayList
      * @return output
      */
     public ArrayList<Name> searchCounty (String county, Node<Name> node, ArrayList<Name> output) {
-        if (node.left != null) searchCounty(county, node.left, output);
-        if (node.data.getCounty().equals(county)) output.add(node.data);
-        if (node.right != null) searchCounty(county, node.right, output);
+        Node<Name>[] stack = newStack(node);
+        int top = 0;
+        Node<Name> current = node;
+        while (current != null || top > 0) {
+            while (current != null) { //go as far left as possible
+                stack[top++] = current;
+                current = current.left;
+            }
+            current = stack[--top];
+            if (current.data.getCounty().equals(county)) output.add(current.data);
+            current = current.right;
+        }
         return output;
     }
+
+    /**
+     * Sums the counts of name objects with names that match
+     * No result list is built; the only allocation is a stack the size of the tree height
+     * @param name name to find
+     * @param node root of the subtree to search
+     * @return total count, 0 if there are no matches
+     */
+    public int sumCountByName (String name, Node<Name> node) {
+        Node<Name>[] stack = newStack(node);
+        int top = seek(stack, node, name);
+        int total = 0;
+        while (top > 0) {
+            Node<Name> current = stack[--top];
+            if (!current.data.getName().equals(name)) break;
+            total += current.data.getCount();
+            top = pushLeft(stack, top, current.right);
+        }
+        return total;
+    }
+
+    /**
+     * Finds the first name object whose name is not before the given name
+     * Fills the stack so that popping it visits that name object and then its in-order successors
+     * @param stack stack for the traversal
+     * @param node root of the subtree to search
+     * @param name lower bound for the name
+     * @return number of nodes on the stack
+     */
+    private static int seek(Node<Name>[] stack, Node<Name> node, String name) {
+        int top = 0;
+        while (node != null) {
+            if (node.data.getName().compareTo(name) >= 0) { //node is in range, the first one may still be to the left
+                stack[top++] = node;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return top;
+    }
+
+    /**
+     * Pushes a node and its chain of left children onto a stack
+     * @param stack stack for the traversal
+     * @param top number of nodes on the stack
+     * @param node first node to push, may be null
+     * @return new number of nodes on the stack
+     */
+    private static <E extends Comparable<E>> int pushLeft(Node<E>[] stack, int top, Node<E> node) {
+        while (node != null) {
+            stack[top++] = node;
+            node = node.left;
+        }
+        return top;
+    }
+
+    /**
+     * Creates a stack for an iterative traversal of a subtree
+     * A traversal never holds more than one node per level, plus one
+     * @param node root of the subtree
+     * @return array large enough to be used as the stack
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <E extends Comparable<E>> Node<E>[] newStack(Node<E> node) {
+        return (Node<E>[]) new Node[(node == null ? 0 : node.height) + 1];
+    }
 }
@@ -0,0 +1,81 @@
+package project5;
+
+/**
+ * Frozen aggregate counts for the names of one YearNames object
+ * Holds the count per name, per county and per name within a county in primitive tables,
+ * indexed by the ids of the shared Name.NAMES and Name.COUNTIES symbol tables,
+ * so that each query is a symbol lookup plus a single table lookup and does not allocate
+ * The tables are a copy; they do not change when the YearNames object changes
+ * @author Joshua Donelly-Higgins
+ */
+class AggregateTables {
+    private int[] countByName;
+    private int[] countByCounty;
+    private LongIntHashMap countByNameCounty;
+
+    /**
+     * Builds the aggregate tables from the names currently stored in a tree
+     * @param tree the tree to aggregate
+     */
+    AggregateTables(AVLTree<Name> tree) {
+        countByName = new int[Name.NAMES.size()];
+        countByCounty = new int[Name.COUNTIES.size()];
+        countByNameCounty = new LongIntHashMap(tree.size());
+        tree.forEach(this::aggregate);
+    }
+
+    /**
+     * Adds the count of a name to the tables
+     * @param name the Name object to add
+     */
+    private void aggregate(Name name) {
+        countByName[name.getNameId()] += name.getCount();
+        countByCounty[name.getCountyId()] += name.getCount();
+        countByNameCounty.addTo(key(name.getNameId(), name.getCountyId()), name.getCount());
+    }
+
+    /**
+     * Gets the total count for a name
+     * @param name String name
+     * @return total count, 0 if the name does not occur
+     */
+    int getCountByName(String name) {
+        int nameId = Name.NAMES.getId(name);
+        if (nameId < 0 || nameId >= countByName.length) return 0;
+        return countByName[nameId];
+    }
+
+    /**
+     * Gets the total count for a county
+     * @param county String county
+     * @return total count, 0 if the county does not occur
+     */
+    int getCountByCounty(String county) {
+        int countyId = Name.COUNTIES.getId(county);
+        if (countyId < 0 || countyId >= countByCounty.length) return 0;
+        return countByCounty[countyId];
+    }
+
+    /**
+     * Gets the total count for a name within a county
+     * @param name String name
+     * @param county String county
+     * @return total count, 0 if the name does not occur within the county
+     */
+    int getCountByNameCounty(String name, String county) {
+        int nameId = Name.NAMES.getId(name);
+        int countyId = Name.COUNTIES.getId(county);
+        if (nameId < 0 || countyId < 0) return 0;
+        return countByNameCounty.get(key(nameId, countyId));
+    }
+
+    /**
+     * Packs a name id and a county id into a single key
+     * @param nameId id of the name
+     * @param countyId id of the county
+     * @return the combined key
+     */
+    private static long key(int nameId, int countyId) {
+        return ((long) nameId << 32) | (countyId & 0xFFFFFFFFL);
+    }
+}
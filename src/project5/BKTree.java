@@ -0,0 +1,111 @@
+package project5;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * A BK-tree of words for finding the words within an edit distance of a query
+ * Each child of a node is keyed by its Levenshtein distance to the node, so by the triangle inequality
+ * a search within distance k only descends into children keyed from d - k to d + k, where d is the
+ * distance of the query to the node, instead of comparing the query with every word
+ * @author Joshua Donelly-Higgins
+ */
+class BKTree {
+    private Node root;
+    private int size;
+
+    /**
+     * Adds a word; words that are already stored are ignored
+     * @param word the word to add
+     */
+    void add(String word) {
+        if (root == null) {
+            root = new Node(word);
+            size++;
+            return;
+        }
+        Node node = root;
+        while (true) {
+            int distance = distance(word, node.word);
+            if (distance == 0) return;
+            Node child = node.children.get(distance);
+            if (child == null) {
+                node.children.put(distance, new Node(word));
+                size++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Gets the number of words
+     * @return number of distinct words added
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Finds the words within an edit distance of a query
+     * @param query the word to look for
+     * @param maxDistance largest number of insertions, deletions and substitutions allowed
+     * @return the matching words, in no particular order
+     */
+    ArrayList<String> search(String query, int maxDistance) {
+        ArrayList<String> output = new ArrayList<>();
+        if (root == null) return output;
+        ArrayList<Node> stack = new ArrayList<>();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.remove(stack.size() - 1);
+            int distance = distance(query, node.word);
+            if (distance <= maxDistance) output.add(node.word);
+            for (int key = Math.max(1, distance - maxDistance); key <= distance + maxDistance; key++) {
+                Node child = node.children.get(key);
+                if (child != null) stack.add(child);
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Computes the Levenshtein distance between two words, keeping only two rows of the table
+     * @param a first word
+     * @param b second word
+     * @return least number of single character insertions, deletions and substitutions turning a into b
+     */
+    static int distance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) previous[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            char c = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (c == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    /**
+     * Node of a BKTree
+     */
+    private static class Node {
+        private String word;
+        private HashMap<Integer, Node> children = new HashMap<>(4);
+
+        /**
+         * Constructs a node without children
+         * @param word the word of the node
+         */
+        Node(String word) {
+            this.word = word;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package project5;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * Answers many name/county queries over several years at once
+ *
+ * The distinct queries are sorted in Name order (by name, then county) when the batch is created.
+ * For each tree-backed year the counts of all queries are then gathered in a single in-order pass that
+ * moves through the tree and the sorted queries together, so each entry of the year is compared at
+ * most a few times no matter how many queries there are. When there are few distinct names the pass
+ * seeks to each of them instead of visiting every entry. Other kinds of years (and frozen trees)
+ * answer each distinct query with a direct lookup.
+ * The total count of each distinct county is looked up once per year and shared by all its queries.
+ * @author Joshua Donelly-Higgins
+ */
+public class BatchQuery {
+    private List<NameCountyQuery> queries;
+
+    //distinct names, sorted; the queries for specific counties of names[i] are the pairs
+    //from pairStart[i] (inclusive) to pairStart[i + 1] (exclusive), sorted by county
+    private String[] names;
+    private int[] pairStart;
+    private String[] pairCounties;
+    //index of the county of each pair in counties, the distinct counties of all pairs
+    private int[] pairCounty;
+    private String[] counties;
+    //whether some query asks for names[i] in all counties
+    private boolean[] nameForAllCounties;
+
+    //per query: index of its name in names, and of its pair or -1 if it is for all counties
+    private int[] queryName;
+    private int[] queryPair;
+
+    /**
+     * Constructs a batch of queries
+     * @param queries the queries, which may contain duplicates
+     */
+    public BatchQuery (List<NameCountyQuery> queries) {
+        if (queries == null) throw new IllegalArgumentException("Invalid queries given.");
+        this.queries = Collections.unmodifiableList(new ArrayList<>(queries));
+
+        //sort the distinct queries into names and pairs
+        TreeSet<NameCountyQuery> sorted = new TreeSet<>(this.queries);
+        ArrayList<String> nameList = new ArrayList<>();
+        ArrayList<Integer> startList = new ArrayList<>();
+        ArrayList<String> pairList = new ArrayList<>();
+        TreeSet<String> countySet = new TreeSet<>();
+        for (NameCountyQuery query : sorted) {
+            if (nameList.isEmpty() || !nameList.get(nameList.size() - 1).equals(query.getName())) {
+                nameList.add(query.getName());
+                startList.add(pairList.size());
+            }
+            if (!query.isAllCounties()) {
+                pairList.add(query.getCounty());
+                countySet.add(query.getCounty());
+            }
+        }
+        startList.add(pairList.size());
+
+        names = nameList.toArray(new String[0]);
+        pairCounties = pairList.toArray(new String[0]);
+        counties = countySet.toArray(new String[0]);
+        pairStart = new int[startList.size()];
+        for (int i = 0; i < pairStart.length; i++) pairStart[i] = startList.get(i);
+        pairCounty = new int[pairCounties.length];
+        for (int i = 0; i < pairCounties.length; i++) pairCounty[i] = Arrays.binarySearch(counties, pairCounties[i]);
+
+        //locate each query in the sorted arrays
+        nameForAllCounties = new boolean[names.length];
+        queryName = new int[this.queries.size()];
+        queryPair = new int[this.queries.size()];
+        for (int i = 0; i < queryName.length; i++) {
+            NameCountyQuery query = this.queries.get(i);
+            int name = Arrays.binarySearch(names, query.getName());
+            queryName[i] = name;
+            if (query.isAllCounties()) {
+                nameForAllCounties[name] = true;
+                queryPair[i] = -1;
+            } else {
+                queryPair[i] = Arrays.binarySearch(pairCounties, pairStart[name], pairStart[name + 1], query.getCounty());
+            }
+        }
+    }
+
+    /**
+     * Getter for queries
+     * @return unmodifiable list of the queries, in the order they were given
+     */
+    public List<NameCountyQuery> getQueries () {
+        return queries;
+    }
+
+    /**
+     * Gets the number of queries
+     * @return number of queries, including duplicates
+     */
+    public int size () {
+        return queries.size();
+    }
+
+    /**
+     * Gets the fraction of babies born with the name within the county, for every query and year
+     * Gives the same values as calling getFractionByNameCounty for each of them
+     * @param years the years to query
+     * @return fractions from 0 to 1, indexed by query (in the order given) and then by year (in list order)
+     */
+    public double[][] getFractions (List<? extends YearStore> years) {
+        return getFractions(years, null);
+    }
+
+    /**
+     * Gets the fraction of babies born with the name within the county, for every query and year,
+     * and the time spent on each year
+     * @param years the years to query
+     * @param nanos if not null, filled with the nanoseconds spent per year (in list order)
+     * @return fractions from 0 to 1, indexed by query (in the order given) and then by year (in list order)
+     */
+    public double[][] getFractions (List<? extends YearStore> years, long[] nanos) {
+        double[][] fractions = new double[queries.size()][years.size()];
+        int[] nameCounts = new int[names.length];
+        int[] pairCounts = new int[pairCounties.length];
+        int[] countyTotals = new int[counties.length];
+
+        for (int j = 0; j < years.size(); j++) {
+            long start = System.nanoTime();
+            YearStore year = years.get(j);
+            Arrays.fill(nameCounts, 0);
+            Arrays.fill(pairCounts, 0);
+            count(year, nameCounts, pairCounts);
+            for (int k = 0; k < counties.length; k++) countyTotals[k] = year.getTotalCountCounty(counties[k]);
+
+            int totalCount = year.getTotalCount();
+            for (int i = 0; i < fractions.length; i++) {
+                int pair = queryPair[i];
+                int count = pair < 0 ? nameCounts[queryName[i]] : pairCounts[pair];
+                int total = pair < 0 ? totalCount : countyTotals[pairCounty[pair]];
+                fractions[i][j] = total == 0 ? 0 : (double) count / total;
+            }
+            if (nanos != null) nanos[j] = System.nanoTime() - start;
+        }
+        return fractions;
+    }
+
+    /**
+     * Gathers the counts of every distinct name and pair in one year
+     * @param year the year to query
+     * @param nameCounts filled with the total count of each name over all counties
+     * @param pairCounts filled with the total count of each pair
+     */
+    private void count (YearStore year, int[] nameCounts, int[] pairCounts) {
+        if (year instanceof YearNames && !((YearNames) year).isFrozen()) {
+            YearNames tree = (YearNames) year;
+            Cursor cursor = new Cursor(nameCounts, pairCounts);
+            int height = tree.root == null ? 0 : tree.root.height;
+            if ((long) names.length * height < tree.size()) {
+                //few names: seek to each of them, in order
+                for (String name : names) tree.forEachName(name, tree.root, cursor);
+            } else {
+                tree.forEach(cursor);
+            }
+            return;
+        }
+
+        for (int i = 0; i < names.length; i++) {
+            if (nameForAllCounties[i]) nameCounts[i] = year.getCountByName(names[i]);
+            for (int p = pairStart[i]; p < pairStart[i + 1]; p++) {
+                pairCounts[p] = year.getCountByNameCounty(names[i], pairCounties[p]);
+            }
+        }
+    }
+
+    /**
+     * Adds the counts of name entries, given in Name order, to the names and pairs they match
+     * The position in the sorted queries only moves forward, so a whole year is matched in one pass
+     */
+    private class Cursor implements Consumer<Name> {
+        private int[] nameCounts;
+        private int[] pairCounts;
+        private int nameIndex;      //first name that is not before the current entry
+        private int pairIndex;      //first pair of that name that is not before the current entry
+        private int lastNameId = -1;
+        private boolean nameMatched;
+
+        /**
+         * Constructs a cursor at the first query
+         * @param nameCounts counts by name to add to
+         * @param pairCounts counts by pair to add to
+         */
+        Cursor (int[] nameCounts, int[] pairCounts) {
+            this.nameCounts = nameCounts;
+            this.pairCounts = pairCounts;
+        }
+
+        /**
+         * Matches the next name entry
+         * @param entry the Name object, not before any entry given earlier
+         */
+        @Override
+        public void accept (Name entry) {
+            //consecutive entries usually share their name, which then only has to be matched once
+            if (entry.getNameId() != lastNameId) {
+                lastNameId = entry.getNameId();
+                nameMatched = false;
+                String name = entry.getName();
+                while (nameIndex < names.length) {
+                    int comparison = names[nameIndex].compareTo(name);
+                    if (comparison > 0) break;
+                    if (comparison == 0) {
+                        nameMatched = true;
+                        break;
+                    }
+                    nameIndex++;
+                }
+                if (nameMatched) pairIndex = pairStart[nameIndex];
+            }
+            if (!nameMatched) return;
+
+            nameCounts[nameIndex] += entry.getCount();
+            String county = entry.getCounty();
+            int end = pairStart[nameIndex + 1];
+            while (pairIndex < end) {
+                int comparison = pairCounties[pairIndex].compareTo(county);
+                if (comparison > 0) return;
+                if (comparison == 0) {
+                    pairCounts[pairIndex] += entry.getCount();
+                    return;
+                }
+                pairIndex++;
+            }
+        }
+    }
+}
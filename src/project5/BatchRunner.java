@@ -0,0 +1,191 @@
+package project5;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs queries read from a stream without prompting, for the --batch mode of NYSBabyNames
+ * Each input line holds a name and optionally a county, separated by a comma; a missing county means "all".
+ * Blank lines are skipped.
+ * Results are written as they are computed, one record per query with the percentage of babies born
+ * with the name in the county for every year, either as CSV with a header line or as a JSON array.
+ * Queries are answered in chunks through BatchQuery, so memory use does not grow with the input.
+ * Each chunk is timed in Metrics as one "batch-chunk" query, and the time it spent on each year by year.
+ * @author Joshua Donelly-Higgins
+ */
+class BatchRunner {
+    //number of queries answered together
+    private static final int CHUNK_SIZE = 4096;
+
+    private List<? extends YearStore> years;
+    private boolean json;
+    private Writer out;
+    private boolean firstRecord = true;
+
+    /**
+     * Constructs a runner
+     * @param years the years to query, in the order their columns are written
+     * @param json true to write JSON, false to write CSV
+     * @param out where results are written; should be buffered, is not closed
+     */
+    BatchRunner(List<? extends YearStore> years, boolean json, Writer out) {
+        this.years = years;
+        this.json = json;
+        this.out = out;
+    }
+
+    /**
+     * Reads every query line, answers the queries and writes the results
+     * @param in the query lines
+     * @throws IOException if reading or writing fails
+     */
+    void run(BufferedReader in) throws IOException {
+        writeHeader();
+        ArrayList<NameCountyQuery> chunk = new ArrayList<>(CHUNK_SIZE);
+        String line;
+        while ((line = in.readLine()) != null) {
+            ArrayList<String> entries = NYSBabyNames.splitCSVLine(line);
+            if (entries.isEmpty() || entries.get(0).isEmpty()) continue;
+            String county = entries.size() > 1 && !entries.get(1).isEmpty() ? entries.get(1) : "all";
+            chunk.add(new NameCountyQuery(entries.get(0), county));
+            if (chunk.size() == CHUNK_SIZE) {
+                writeChunk(chunk);
+                chunk.clear();
+            }
+        }
+        writeChunk(chunk);
+        writeFooter();
+        out.flush();
+    }
+
+    /**
+     * Answers a chunk of queries and writes one record per query
+     * @param chunk the queries
+     * @throws IOException if writing fails
+     */
+    private void writeChunk(List<NameCountyQuery> chunk) throws IOException {
+        if (chunk.isEmpty()) return;
+        long start = System.nanoTime();
+        long[] nanos = new long[years.size()];
+        double[][] fractions = new BatchQuery(chunk).getFractions(years, nanos);
+        //queries of a chunk are answered together and have no latency of their own, so the chunk is
+        //recorded as one sample, and each year as one sample of the time the chunk spent on it
+        Metrics metrics = Metrics.getInstance();
+        metrics.recordQuery("batch-chunk", System.nanoTime() - start);
+        for (int j = 0; j < years.size(); j++) metrics.recordYear(years.get(j).getYear(), nanos[j]);
+        for (int i = 0; i < chunk.size(); i++) {
+            if (json) writeJsonRecord(chunk.get(i), fractions[i]);
+            else writeCsvRecord(chunk.get(i), fractions[i]);
+        }
+    }
+
+    /**
+     * Writes what comes before the first record
+     * @throws IOException if writing fails
+     */
+    private void writeHeader() throws IOException {
+        if (json) {
+            out.write('[');
+            return;
+        }
+        out.write("name,county");
+        for (YearStore element : years) {
+            out.write(',');
+            out.write(Integer.toString(element.getYear()));
+        }
+        out.write('\n');
+    }
+
+    /**
+     * Writes what comes after the last record
+     * @throws IOException if writing fails
+     */
+    private void writeFooter() throws IOException {
+        if (json) out.write(firstRecord ? "]\n" : "\n]\n");
+    }
+
+    /**
+     * Writes a query and its percentages as a CSV line
+     * @param query the query
+     * @param fractions fraction per year
+     * @throws IOException if writing fails
+     */
+    private void writeCsvRecord(NameCountyQuery query, double[] fractions) throws IOException {
+        writeCsvField(query.getName());
+        out.write(',');
+        writeCsvField(query.getCounty());
+        for (double fraction : fractions) {
+            out.write(',');
+            out.write(Double.toString(fraction * 100));
+        }
+        out.write('\n');
+    }
+
+    /**
+     * Writes a query and its percentages as a JSON object
+     * @param query the query
+     * @param fractions fraction per year
+     * @throws IOException if writing fails
+     */
+    private void writeJsonRecord(NameCountyQuery query, double[] fractions) throws IOException {
+        out.write(firstRecord ? "\n" : ",\n");
+        firstRecord = false;
+        out.write("{\"name\":");
+        writeJsonString(query.getName());
+        out.write(",\"county\":");
+        writeJsonString(query.getCounty());
+        out.write(",\"percent\":{");
+        for (int j = 0; j < fractions.length; j++) {
+            if (j > 0) out.write(',');
+            out.write('"');
+            out.write(Integer.toString(years.get(j).getYear()));
+            out.write("\":");
+            out.write(Double.toString(fractions[j] * 100));
+        }
+        out.write("}}");
+    }
+
+    /**
+     * Writes a CSV field, surrounded by double quotes if it contains a comma, quote or line break
+     * @param field the field
+     * @throws IOException if writing fails
+     */
+    private void writeCsvField(String field) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < field.length() && !quote; i++) {
+            char c = field.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(field);
+            return;
+        }
+        out.write('"');
+        out.write(field.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    /**
+     * Writes a JSON string literal, escaping quotes, backslashes and control characters
+     * @param value the String
+     * @throws IOException if writing fails
+     */
+    private void writeJsonString(String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+                out.write(c);
+            } else if (c < 0x20) {
+                out.write(String.format("\\u%04x", (int) c));
+            } else {
+                out.write(c);
+            }
+        }
+        out.write('"');
+    }
+}
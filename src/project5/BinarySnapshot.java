@@ -0,0 +1,258 @@
+package project5;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A compact binary file holding the names of several years, read back through a memory map
+ *
+ * The file starts with the magic number and version, followed by the sorted dictionaries of
+ * names and counties (a count, then a length and UTF-8 bytes per entry) and the number of years.
+ * Each year then has its year, total count and number of entries, followed by the columns
+ * name id, county id and count (ints) and gender (bytes), in tree order, and the total count
+ * per county id (ints).
+ * Ids are positions in the sorted dictionaries, so comparing ids gives the same order as comparing
+ * Strings and lookups are binary searches over ints.
+ *
+ * Opening a snapshot maps the file and only decodes the dictionaries; queries read the mapped
+ * columns directly, so no Name objects are created and several processes share the page cache.
+ * Snapshots are limited to 2 GB, the size of a single mapped buffer.
+ * @author Joshua Donelly-Higgins
+ */
+public class BinarySnapshot {
+    private static final int MAGIC = 0x424E4442; //"BNDB"
+    private static final int VERSION = 1;
+
+    private MappedByteBuffer buffer;
+    private String[] names;
+    private String[] counties;
+    private ArrayList<YearStore> years;
+
+    /**
+     * Maps a snapshot file and reads its dictionaries and year headers
+     * @param file the snapshot file
+     * @throws IOException if the file cannot be read, is not a snapshot or is truncated
+     */
+    private BinarySnapshot(File file) throws IOException {
+        try (RandomAccessFile in = new RandomAccessFile(file, "r");
+             FileChannel channel = in.getChannel()) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) throw new IOException("Not a snapshot file.");
+        if (buffer.getInt() != VERSION) throw new IOException("Unsupported snapshot version.");
+
+        try {
+            names = readDictionary();
+            counties = readDictionary();
+
+            int yearCount = buffer.getInt();
+            if (yearCount < 0) throw new IllegalArgumentException("Negative number of years.");
+            years = new ArrayList<>();
+            for (int i = 0; i < yearCount; i++) {
+                int year = buffer.getInt();
+                int totalCount = buffer.getInt();
+                int size = buffer.getInt();
+                long end = buffer.position() + (long) size * 13 + (long) counties.length * 4;
+                if (size < 0 || end > buffer.limit()) throw new IllegalArgumentException("Year past the end of the file.");
+                MappedYearNames element = new MappedYearNames(this, year, totalCount, size, buffer.position());
+                years.add(element);
+                buffer.position((int) end);
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException ex) {
+            //caused by a header or dictionary length that runs past the end of the file
+            throw new IOException("Truncated snapshot file.", ex);
+        }
+    }
+
+    /**
+     * Opens a snapshot file
+     * @param file the snapshot file
+     * @return the opened snapshot
+     * @throws IOException if the file cannot be read, is not a snapshot or is truncated
+     */
+    public static BinarySnapshot open(File file) throws IOException {
+        return new BinarySnapshot(file);
+    }
+
+    /**
+     * Checks whether a file starts like a snapshot file
+     * @param file the file to check
+     * @return true if the file starts with the snapshot magic number
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isSnapshot(File file) throws IOException {
+        if (file.length() < 4) return false;
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readInt() == MAGIC;
+        }
+    }
+
+    /**
+     * Writes the names of several years to a snapshot file
+     * @param list the years to write, in the order they are listed in the snapshot
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(List<YearNames> list, File file) throws IOException {
+        //sorted dictionaries of the names and counties that occur, and the snapshot id of each shared id
+        boolean[] nameUsed = new boolean[Name.NAMES.size()];
+        boolean[] countyUsed = new boolean[Name.COUNTIES.size()];
+        for (YearNames element : list) {
+            element.forEach(name -> {
+                nameUsed[name.getNameId()] = true;
+                countyUsed[name.getCountyId()] = true;
+            });
+        }
+        String[] nameDictionary = dictionary(Name.NAMES, nameUsed);
+        String[] countyDictionary = dictionary(Name.COUNTIES, countyUsed);
+        int[] nameIds = remap(Name.NAMES, nameDictionary);
+        int[] countyIds = remap(Name.COUNTIES, countyDictionary);
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeDictionary(out, nameDictionary);
+            writeDictionary(out, countyDictionary);
+
+            out.writeInt(list.size());
+            for (YearNames element : list) {
+                ArrayList<Name> entries = new ArrayList<>(element.size());
+                element.forEach(entries::add);
+                int[] countyTotals = new int[countyDictionary.length];
+
+                out.writeInt(element.getYear());
+                out.writeInt(element.getTotalCount());
+                out.writeInt(entries.size());
+                for (Name name : entries) out.writeInt(nameIds[name.getNameId()]);
+                for (Name name : entries) out.writeInt(countyIds[name.getCountyId()]);
+                for (Name name : entries) {
+                    out.writeInt(name.getCount());
+                    countyTotals[countyIds[name.getCountyId()]] += name.getCount();
+                }
+                for (Name name : entries) out.writeByte(name.getGender().charAt(0));
+                for (int total : countyTotals) out.writeInt(total);
+            }
+        }
+    }
+
+    /**
+     * Gets the years of the snapshot
+     * @return list of years, in the order they were written
+     */
+    public ArrayList<YearStore> getYears() {
+        return years;
+    }
+
+    /**
+     * Getter for the mapped file
+     * @return buffer holding the whole file; only absolute reads may be used on it
+     */
+    MappedByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Gets the snapshot id of a name
+     * @param name String name
+     * @return id of the name, or -1 if it does not occur in the snapshot
+     */
+    int getNameId(String name) {
+        int id = Arrays.binarySearch(names, name);
+        return id < 0 ? -1 : id;
+    }
+
+    /**
+     * Gets the name with a snapshot id
+     * @param id id of the name
+     * @return String name
+     */
+    String getName(int id) {
+        return names[id];
+    }
+
+    /**
+     * Gets the snapshot id of a county
+     * @param county String county
+     * @return id of the county, or -1 if it does not occur in the snapshot
+     */
+    int getCountyId(String county) {
+        int id = Arrays.binarySearch(counties, county);
+        return id < 0 ? -1 : id;
+    }
+
+    /**
+     * Reads a dictionary at the current position of the buffer
+     * @return the Strings of the dictionary, sorted
+     * @throws IllegalArgumentException if a length runs past the end of the buffer
+     */
+    private String[] readDictionary() {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining() / 4) throw new IllegalArgumentException("Invalid dictionary length.");
+        String[] dictionary = new String[length];
+        for (int i = 0; i < dictionary.length; i++) {
+            int byteLength = buffer.getInt();
+            if (byteLength < 0 || byteLength > buffer.remaining()) throw new IllegalArgumentException("Invalid symbol length.");
+            byte[] bytes = new byte[byteLength];
+            buffer.get(bytes);
+            dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return dictionary;
+    }
+
+    /**
+     * Writes a dictionary
+     * @param out output stream
+     * @param dictionary sorted Strings
+     * @throws IOException if the output cannot be written
+     */
+    private static void writeDictionary(DataOutputStream out, String[] dictionary) throws IOException {
+        out.writeInt(dictionary.length);
+        for (String symbol : dictionary) {
+            byte[] bytes = symbol.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Builds a sorted dictionary of the used Strings of a symbol table
+     * @param table the shared symbol table
+     * @param used which ids of the table occur
+     * @return sorted Strings
+     */
+    private static String[] dictionary(SymbolTable table, boolean[] used) {
+        ArrayList<String> symbols = new ArrayList<>();
+        for (int id = 0; id < used.length; id++) {
+            if (used[id]) symbols.add(table.getSymbol(id));
+        }
+        String[] dictionary = symbols.toArray(new String[0]);
+        Arrays.sort(dictionary);
+        return dictionary;
+    }
+
+    /**
+     * Maps each id of a shared symbol table to its position in a dictionary
+     * @param table the shared symbol table
+     * @param dictionary sorted Strings
+     * @return snapshot id by shared id, -1 for Strings not in the dictionary
+     */
+    private static int[] remap(SymbolTable table, String[] dictionary) {
+        int[] ids = new int[table.size()];
+        Arrays.fill(ids, -1);
+        for (int i = 0; i < dictionary.length; i++) ids[table.getId(dictionary[i])] = i;
+        return ids;
+    }
+}
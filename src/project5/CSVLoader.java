@@ -0,0 +1,526 @@
+package project5;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads a .csv of baby names into YearNames objects
+ * Each line has the five columns year, first name, county, sex and count.
+ * Lines are parsed straight from a byte buffer: fields are located as slices of the buffer
+ * and numbers are parsed from the bytes, so no per-line Strings or lists are created.
+ * Lines that are incomplete or miss-formatted (including the header line) are skipped.
+ * Files can also be loaded in parallel: the file is split into byte ranges on line boundaries
+ * that are parsed by separate workers, and the rows of each year are then added by one task per year.
+ * Further files can be appended to the loaded years, or to years loaded earlier, without reloading them.
+ * Duplicates follow one policy everywhere: the newest row wins. Each row is the complete count of its
+ * year, name, county, and sex, so a later row with the same key (within one load, within one append,
+ * or over a row stored earlier) replaces the count instead of being added to it; summing them would
+ * count republished rows twice. Rows that repeat a stored count change nothing. NameQueryService
+ * follows the same policy. Callers whose rows are partial counts can use YearNames.addOrMerge instead.
+ * The loader counts the rows it parsed and rejected and the time spent parsing lines and adding rows to years.
+ * @author Joshua Donelly-Higgins
+ */
+public class CSVLoader {
+    private static final int FIELDS = 5;
+    private static final int BUFFER_SIZE = 1 << 16;
+    //appends of more than 1/BULK_APPEND_RATIO of the size of a year rebuild it instead of inserting each row
+    private static final int BULK_APPEND_RATIO = 16;
+
+    //years indexed by their offset from YearNames.MIN_YEAR, null if not loaded
+    private YearNames[] years;
+    //parsed rows waiting to be added to their year, indexed the same way, null if there are none
+    private ArrayList<Name>[] rows;
+
+    //read buffer and the bounds of the fields of the current line within it
+    private byte[] buffer;
+    private int[] fieldStart;
+    private int[] fieldEnd;
+
+    //statistics of every load and append so far
+    private long rowsParsed;
+    private long rowsRejected;
+    private long rowsReplaced;
+    private long parseNanos;
+    private long buildNanos;
+
+    /**
+     * Constructs a loader with no years loaded
+     */
+    public CSVLoader() {
+        years = new YearNames[YearNames.MAX_YEAR - YearNames.MIN_YEAR + 1];
+        rows = newRows();
+        buffer = new byte[BUFFER_SIZE];
+        fieldStart = new int[FIELDS];
+        fieldEnd = new int[FIELDS];
+    }
+
+    /**
+     * Constructs a loader that appends to years loaded earlier
+     * The YearNames objects are extended in place
+     * @param existing the years loaded so far
+     */
+    public CSVLoader(Collection<YearNames> existing) {
+        this();
+        for (YearNames element : existing) years[element.getYear() - YearNames.MIN_YEAR] = element;
+    }
+
+    /**
+     * Loads every line of a file
+     * @param file the .csv file to read
+     * @throws IOException if the file cannot be read
+     */
+    public void load(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            load(in);
+        }
+    }
+
+    /**
+     * Loads every line of a stream; the stream is not closed
+     * @param in stream of .csv data
+     * @throws IOException if the stream cannot be read
+     */
+    public void load(InputStream in) throws IOException {
+        long start = System.nanoTime();
+        load(in, Long.MAX_VALUE);
+        long parsed = System.nanoTime();
+        parseNanos += parsed - start;
+
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] != null) addRows(i, rows[i]);
+        }
+        rows = newRows();
+        buildNanos += System.nanoTime() - parsed;
+    }
+
+    /**
+     * Appends the lines of a file to the loaded years
+     * Rows that are already stored are skipped, or replace the stored count if theirs differs
+     * @param file the .csv file to read
+     * @return number of rows added
+     * @throws IOException if the file cannot be read
+     */
+    public int append(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            return append(in);
+        }
+    }
+
+    /**
+     * Appends the lines of a stream to the loaded years; the stream is not closed
+     * Rows that are already stored are skipped, or replace the stored count if theirs differs
+     * Years that are not loaded yet are created. Only the years that occur in the stream are changed,
+     * and each of them keeps its total count and indexes up to date.
+     * @param in stream of .csv data
+     * @return number of rows added; replaced counts are reported by getRowsReplaced
+     * @throws IOException if the stream cannot be read
+     */
+    public int append(InputStream in) throws IOException {
+        long start = System.nanoTime();
+        load(in, Long.MAX_VALUE);
+        long parsed = System.nanoTime();
+        parseNanos += parsed - start;
+
+        int added = 0;
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] != null) added += appendRows(i, rows[i]);
+        }
+        rows = newRows();
+        buildNanos += System.nanoTime() - parsed;
+        return added;
+    }
+
+    /**
+     * Loads a file using several worker threads
+     * Rows are added in file order within each year, so the result is the same as load(file)
+     * @param file the .csv file to read
+     * @param threads number of worker threads, at least 1
+     * @throws IOException if the file cannot be read
+     */
+    public void loadParallel(File file, int threads) throws IOException {
+        if (threads < 1) throw new IllegalArgumentException("Invalid number of threads given.");
+        long begin = System.nanoTime();
+        long[] splits = splitLines(file, threads);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        try {
+            //parse each byte range into rows grouped by year
+            ArrayList<Future<CSVLoader>> parsed = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                long start = splits[i];
+                long end = splits[i + 1];
+                parsed.add(pool.submit(() -> {
+                    CSVLoader partition = new CSVLoader();
+                    try (FileInputStream in = new FileInputStream(file)) {
+                        in.getChannel().position(start);
+                        partition.load(in, end - start);
+                    }
+                    return partition;
+                }));
+            }
+            ArrayList<CSVLoader> partitions = new ArrayList<>();
+            for (Future<CSVLoader> future : parsed) partitions.add(await(future));
+            for (CSVLoader partition : partitions) {
+                rowsParsed += partition.rowsParsed;
+                rowsRejected += partition.rowsRejected;
+            }
+            long split = System.nanoTime();
+            parseNanos += split - begin;
+
+            //add the rows of each year in file order, one task per year
+            ArrayList<Future<?>> merged = new ArrayList<>();
+            for (int i = 0; i < years.length; i++) {
+                ArrayList<Name> yearRows = new ArrayList<>();
+                for (CSVLoader partition : partitions) {
+                    if (partition.rows[i] != null) yearRows.addAll(partition.rows[i]);
+                }
+                if (yearRows.isEmpty()) continue;
+
+                int index = i;
+                merged.add(pool.submit(() -> addRows(index, yearRows)));
+            }
+            for (Future<?> future : merged) await(future);
+            buildNanos += System.nanoTime() - split;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Reads at most limit bytes of a stream and parses the lines in them; the stream is not closed
+     * The parsed rows are kept in rows until they are added to their years
+     * @param in stream of .csv data
+     * @param limit maximum number of bytes to read
+     * @throws IOException if the stream cannot be read
+     */
+    void load(InputStream in, long limit) throws IOException {
+        int length = 0; //number of valid bytes in the buffer
+        long remaining = limit;
+        boolean endOfStream = false;
+
+        while (!endOfStream || length > 0) {
+            //fill the buffer, growing it if a single line does not fit
+            if (!endOfStream) {
+                if (length == buffer.length) {
+                    byte[] larger = new byte[buffer.length * 2];
+                    System.arraycopy(buffer, 0, larger, 0, length);
+                    buffer = larger;
+                }
+                int read = in.read(buffer, length, (int) Math.min(buffer.length - length, remaining));
+                if (read <= 0) {
+                    endOfStream = true;
+                } else {
+                    length += read;
+                    remaining -= read;
+                }
+            }
+
+            //parse every complete line in the buffer
+            int lineStart = 0;
+            for (int i = 0; i < length; i++) {
+                if (buffer[i] == '\n') {
+                    parseLine(lineStart, i);
+                    lineStart = i + 1;
+                }
+            }
+            if (endOfStream && lineStart < length) { //last line without a line break
+                parseLine(lineStart, length);
+                lineStart = length;
+            }
+
+            //keep the incomplete line for the next read
+            System.arraycopy(buffer, lineStart, buffer, 0, length - lineStart);
+            length -= lineStart;
+        }
+    }
+
+    /**
+     * Gets the loaded years
+     * @return list of YearNames objects sorted by year
+     */
+    public ArrayList<YearNames> getYears() {
+        ArrayList<YearNames> list = new ArrayList<>();
+        for (YearNames element : years) {
+            if (element != null) list.add(element);
+        }
+        return list;
+    }
+
+    /**
+     * Getter for rowsParsed
+     * @return number of lines parsed into a Name so far
+     */
+    public long getRowsParsed() {
+        return rowsParsed;
+    }
+
+    /**
+     * Getter for rowsRejected
+     * @return number of lines skipped as incomplete or miss-formatted so far, including header lines
+     */
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    /**
+     * Getter for rowsReplaced
+     * @return number of appended lines so far that corrected the count of a stored row
+     */
+    public long getRowsReplaced() {
+        return rowsReplaced;
+    }
+
+    /**
+     * Getter for parseNanos
+     * @return nanoseconds spent reading and parsing lines so far
+     */
+    public long getParseNanos() {
+        return parseNanos;
+    }
+
+    /**
+     * Getter for buildNanos
+     * @return nanoseconds spent adding the parsed rows to their years so far
+     */
+    public long getBuildNanos() {
+        return buildNanos;
+    }
+
+    /**
+     * Parses one line of the buffer and keeps it for its year
+     * Lines that are incomplete or miss-formatted are skipped
+     * @param start index of the first byte of the line
+     * @param end index after the last byte of the line
+     */
+    private void parseLine(int start, int end) {
+        try {
+            if (!splitFields(start, end)) throw new IllegalArgumentException("Incomplete line.");
+
+            int year = parseInt(0);
+            Name name = new Name(field(1), gender(3), parseInt(4), field(2));
+
+            if (year < YearNames.MIN_YEAR || year > YearNames.MAX_YEAR) throw new IllegalArgumentException("Year was not valid.");
+            addRow(year - YearNames.MIN_YEAR, name);
+            rowsParsed++;
+
+        } catch (IllegalArgumentException ex) {
+            //caused by an incomplete or miss-formatted line in the input file
+            rowsRejected++;
+        }
+    }
+
+    /**
+     * Keeps a parsed row until the rows of its year are added together
+     * @param index offset of the year from YearNames.MIN_YEAR
+     * @param name the Name parsed from the row
+     */
+    private void addRow(int index, Name name) {
+        if (rows[index] == null) rows[index] = new ArrayList<>();
+        rows[index].add(name);
+    }
+
+    /**
+     * Bulk adds parsed rows to their year, adding a year entry if necessary
+     * Of several rows with the same key, the last one is kept
+     * @param index offset of the year from YearNames.MIN_YEAR
+     * @param names the Names parsed from the rows, in file order
+     */
+    private void addRows(int index, ArrayList<Name> names) {
+        YearNames element = years[index];
+        if (element == null) {
+            element = new YearNames(YearNames.MIN_YEAR + index);
+            years[index] = element;
+        }
+        element.addOrReplaceAll(names);
+    }
+
+    /**
+     * Adds the parsed rows of a year that it does not store yet, adding a year entry if necessary,
+     * and replaces the counts of stored rows that the new rows correct
+     * A few rows are inserted one at a time in O(log n) each; when there are many, the year is bulk rebuilt
+     * @param index offset of the year from YearNames.MIN_YEAR
+     * @param names the Names parsed from the rows, in file order
+     * @return number of rows added
+     */
+    private int appendRows(int index, ArrayList<Name> names) {
+        YearNames element = years[index];
+        if (element == null) {
+            element = new YearNames(YearNames.MIN_YEAR + index);
+            years[index] = element;
+        }
+
+        //of rows repeated within the new ones, the last one counts
+        LinkedHashMap<Name, Name> latest = new LinkedHashMap<>();
+        for (Name name : names) latest.put(name, name);
+
+        //correct the counts of rows the year already stores, in place, and keep the others to add
+        ArrayList<Name> fresh = new ArrayList<>();
+        for (Name name : latest.values()) {
+            Name stored = element.find(name);
+            if (stored == null) {
+                fresh.add(name);
+            } else if (stored.getCount() != name.getCount()) {
+                element.addOrReplace(name);
+                rowsReplaced++;
+            }
+        }
+
+        if (fresh.size() > element.size() / BULK_APPEND_RATIO) {
+            element.addAll(fresh);
+        } else {
+            for (Name name : fresh) element.add(name);
+        }
+        return fresh.size();
+    }
+
+    /**
+     * Creates an empty array of rows per year
+     * @return array with a null entry for every year
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ArrayList<Name>[] newRows() {
+        return new ArrayList[YearNames.MAX_YEAR - YearNames.MIN_YEAR + 1];
+    }
+
+    /**
+     * Finds the fields of a line, separated by commas outside of double quotes
+     * Surrounding whitespace and quotes are excluded from each field
+     * @param start index of the first byte of the line
+     * @param end index after the last byte of the line
+     * @return true if the line has exactly five fields, false otherwise
+     */
+    private boolean splitFields(int start, int end) {
+        int field = 0;
+        int fieldFrom = start;
+        boolean insideQuotes = false;
+
+        for (int i = start; i <= end; i++) {
+            if (i < end && buffer[i] == '"') {
+                insideQuotes = !insideQuotes;
+            } else if (i == end || (buffer[i] == ',' && !insideQuotes)) {
+                if (field == FIELDS) return false;
+                int from = fieldFrom;
+                int to = i;
+                while (from < to && isWhitespaceOrQuote(buffer[from])) from++;
+                while (to > from && isWhitespaceOrQuote(buffer[to - 1])) to--;
+                fieldStart[field] = from;
+                fieldEnd[field] = to;
+                field++;
+                fieldFrom = i + 1;
+            }
+        }
+        return field == FIELDS;
+    }
+
+    /**
+     * Checks for bytes that are trimmed from the ends of a field
+     * @param b the byte to check
+     * @return true for ASCII whitespace and double quotes
+     */
+    private static boolean isWhitespaceOrQuote(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '"';
+    }
+
+    /**
+     * Gets a field of the current line as a String
+     * @param index index of the field
+     * @return the field
+     */
+    private String field(int index) {
+        return new String(buffer, fieldStart[index], fieldEnd[index] - fieldStart[index], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets a gender field of the current line, reusing constant Strings for "m" and "f"
+     * @param index index of the field
+     * @return the field
+     */
+    private String gender(int index) {
+        if (fieldEnd[index] - fieldStart[index] == 1) {
+            byte b = buffer[fieldStart[index]];
+            if (b == 'M' || b == 'm') return "m";
+            if (b == 'F' || b == 'f') return "f";
+        }
+        return field(index);
+    }
+
+    /**
+     * Parses a non-negative int field of the current line without creating a String
+     * @param index index of the field
+     * @return the value of the field
+     */
+    private int parseInt(int index) {
+        int from = fieldStart[index];
+        int to = fieldEnd[index];
+        if (from == to) throw new NumberFormatException("Empty number.");
+
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) throw new NumberFormatException("Invalid digit in number.");
+            if (value > (Integer.MAX_VALUE - digit) / 10) throw new NumberFormatException("Number too large.");
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Splits a file into byte ranges that start at the beginning of a line
+     * @param file the file to split
+     * @param parts number of ranges
+     * @return parts + 1 offsets; range i is from offset i (inclusive) to offset i + 1 (exclusive)
+     * @throws IOException if the file cannot be read
+     */
+    private static long[] splitLines(File file, int parts) throws IOException {
+        long[] splits = new long[parts + 1];
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            long size = in.length();
+            splits[parts] = size;
+            for (int i = 1; i < parts; i++) {
+                long offset = Math.max(size / parts * i, splits[i - 1]);
+                if (offset == 0) continue;
+
+                //move past the end of the line that contains the byte before offset
+                in.seek(offset - 1);
+                int b;
+                do {
+                    b = in.read();
+                } while (b != -1 && b != '\n');
+                splits[i] = in.getFilePointer();
+            }
+        }
+        return splits;
+    }
+
+    /**
+     * Waits for a worker task, rethrowing its failure
+     * @param future the task to wait for
+     * @return the result of the task
+     * @throws IOException if the task failed to read its input or the wait was interrupted
+     */
+    private static <V> V await(Future<V> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while loading.");
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IOException(cause);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package project5;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * A read-only copy of a YearNames object stored as parallel primitive arrays
+ * Entry i of each array describes the i-th Name of the year in tree order (by name, then county),
+ * so the entries of one name, or one name within a county, are a contiguous range found by binary search
+ * Uses a few bytes per entry instead of a tree node and a Name object, and scans stay within the arrays
+ * @author Joshua Donelly-Higgins
+ */
+public class ColumnarYearNames implements YearStore, Comparable<ColumnarYearNames> {
+    private int year;
+    private int totalCount;
+
+    //columns, one entry per Name object in tree order
+    private int[] nameIds;
+    private int[] countyIds;
+    private byte[] genders;
+    private int[] counts;
+
+    //total count per county, indexed by county id
+    private int[] countyTotals;
+
+    //names sorted by popularity, built on first use for each known county and gender ("county|gender")
+    private ConcurrentHashMap<String, NameTotal[]> rankings = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a columnar copy of the names currently stored in a YearNames object
+     * Later changes to the YearNames object are not reflected
+     * @param source the YearNames object to copy
+     */
+    public ColumnarYearNames(YearNames source) {
+        year = source.getYear();
+        totalCount = source.getTotalCount();
+        int size = source.size();
+        nameIds = new int[size];
+        countyIds = new int[size];
+        genders = new byte[size];
+        counts = new int[size];
+        countyTotals = new int[Name.COUNTIES.size()];
+
+        int[] next = {0};
+        source.forEach(name -> {
+            int i = next[0]++;
+            nameIds[i] = name.getNameId();
+            countyIds[i] = name.getCountyId();
+            genders[i] = (byte) name.getGender().charAt(0);
+            counts[i] = name.getCount();
+            countyTotals[name.getCountyId()] += name.getCount();
+        });
+    }
+
+    /**
+     * Getter for year
+     * @return year
+     */
+    @Override
+    public int getYear() {
+        return year;
+    }
+
+    /**
+     * Getter for totalCount
+     * @return totalCount
+     */
+    @Override
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Gets the number of entries
+     * @return number of Name objects copied from the source
+     */
+    public int size() {
+        return counts.length;
+    }
+
+    /**
+     * Gets the total count by name
+     * Binary searches for the first entry of the name and sums the following entries with the same name
+     * @param name String input name
+     * @return the total count for entries with that name
+     */
+    @Override
+    public int getCountByName (String name) {
+        int nameId = Name.NAMES.getId(name);
+        if (nameId < 0) return 0;
+
+        int currentCount = 0;
+        for (int i = lowerBound(name, null); i < nameIds.length && nameIds[i] == nameId; i++) {
+            currentCount += counts[i];
+        }
+        return currentCount;
+    }
+
+    /**
+     * Gets the total count for a county
+     * if county.equals("all"), get totalCount
+     * @param county String input county
+     * @return total count for a county
+     */
+    @Override
+    public int getTotalCountCounty (String county) {
+        if (county.equals("all")) {return getTotalCount();}
+
+        int countyId = Name.COUNTIES.getId(county);
+        if (countyId < 0 || countyId >= countyTotals.length) return 0;
+        return countyTotals[countyId];
+    }
+
+    /**
+     * Gets the total count by name within a county
+     * if county.equals("all"), get the count by name
+     * @param name String input name
+     * @param county String input county
+     * @return the total count for entries with that name and county
+     */
+    @Override
+    public int getCountByNameCounty (String name, String county) {
+        if (county.equalsIgnoreCase("all")) {return getCountByName(name);}
+
+        int nameId = Name.NAMES.getId(name);
+        int countyId = Name.COUNTIES.getId(county);
+        if (nameId < 0 || countyId < 0) return 0;
+
+        int currentCount = 0;
+        for (int i = lowerBound(name, county); i < nameIds.length && nameIds[i] == nameId && countyIds[i] == countyId; i++) {
+            currentCount += counts[i];
+        }
+        return currentCount;
+    }
+
+    /**
+     * Gets the fraction of babies born with a name within a county for a year
+     * @param name String input name
+     * @param county String input county
+     * @return double from 0 to 1
+     */
+    @Override
+    public double getFractionByNameCounty (String name, String county) {
+        int totalCounty = getTotalCountCounty(county);
+        if (totalCounty == 0) return 0;
+        return ((double) getCountByNameCounty(name, county) / totalCounty);
+    }
+
+    /**
+     * Performs an action on each distinct name of the year, once per name, in alphabetical order
+     * @param action action to perform
+     */
+    @Override
+    public void forEachDistinctName (Consumer<String> action) {
+        for (int i = 0; i < nameIds.length; i++) {
+            if (i == 0 || nameIds[i] != nameIds[i - 1]) action.accept(Name.NAMES.getSymbol(nameIds[i]));
+        }
+    }
+
+    /**
+     * Gets the k most popular names of this year within a county and gender
+     * The ranking of each county and gender is built with one scan of the columns the first time it is
+     * asked for and then reused; copies are immutable, so this is safe to call from several threads
+     * Unknown counties and genders are answered without caching, so only known ones are kept
+     * @param k number of names
+     * @param county String input county, or "all"
+     * @param gender String input gender "m" or "f", or "all"
+     * @return names and their total counts, most popular first; empty if nobody matches
+     */
+    public ArrayList<NameTotal> getTopNames (int k, String county, String gender) {
+        if (k < 0) throw new IllegalArgumentException("Invalid number of names given.");
+        if ((!county.equals("all") && Name.COUNTIES.getId(county) < 0)
+                || (!gender.equals("all") && !gender.equals("m") && !gender.equals("f"))) {
+            return new ArrayList<>();
+        }
+        NameTotal[] ranking = rankings.computeIfAbsent(county + "|" + gender, key -> rank(county, gender));
+        return new ArrayList<>(Arrays.asList(ranking).subList(0, Math.min(k, ranking.length)));
+    }
+
+    /**
+     * Sums the counts of each name within a county and gender and sorts the names by popularity
+     * @param county String input county, or "all"
+     * @param gender String input gender "m" or "f", or "all"
+     * @return names and their total counts, most popular first
+     */
+    private NameTotal[] rank (String county, String gender) {
+        boolean allCounties = county.equals("all");
+        boolean allGenders = gender.equals("all");
+        int countyId = allCounties ? -1 : Name.COUNTIES.getId(county);
+        if ((!allCounties && countyId < 0) || (!allGenders && !gender.equals("m") && !gender.equals("f"))) {
+            return new NameTotal[0];
+        }
+        byte genderByte = allGenders ? 0 : (byte) gender.charAt(0);
+
+        //entries are sorted by name, so the entries of each name are adjacent
+        ArrayList<NameTotal> totals = new ArrayList<>();
+        int i = 0;
+        while (i < nameIds.length) {
+            int nameId = nameIds[i];
+            int total = 0;
+            boolean matched = false;
+            for (; i < nameIds.length && nameIds[i] == nameId; i++) {
+                if ((allCounties || countyIds[i] == countyId) && (allGenders || genders[i] == genderByte)) {
+                    total += counts[i];
+                    matched = true;
+                }
+            }
+            if (matched) totals.add(new NameTotal(Name.NAMES.getSymbol(nameId), total));
+        }
+        NameTotal[] ranking = totals.toArray(new NameTotal[0]);
+        Arrays.sort(ranking);
+        return ranking;
+    }
+
+    /**
+     * Finds the first entry that is not before the given name and county
+     * @param name lower bound for the name
+     * @param county lower bound for the county within the name, or null to only bound the name
+     * @return index of the first such entry, or size() if there is none
+     */
+    private int lowerBound (String name, String county) {
+        int low = 0;
+        int high = nameIds.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int comparison = Name.NAMES.getSymbol(nameIds[middle]).compareTo(name);
+            if (comparison == 0 && county != null) comparison = Name.COUNTIES.getSymbol(countyIds[middle]).compareTo(county);
+            if (comparison < 0) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * Returns a String representation of ColumnarYearNames
+     * @return "List of names for year [year]"
+     */
+    @Override
+    public String toString() {
+        return String.format("List of names for year %d", getYear());
+    }
+
+    /**
+     * Compares by year
+     * @param o the ColumnarYearNames object to compare to
+     * @return the year of this minus the year of the parameter o
+     */
+    @Override
+    public int compareTo(ColumnarYearNames o) {
+        return this.getYear() - o.getYear();
+    }
+}
@@ -0,0 +1,94 @@
+package project5;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Secondary index over the Name objects of a YearNames tree, keyed by county
+ * Keeps a running total count per county and the Name objects of each county grouped by name,
+ * so county queries do not have to traverse the whole tree
+ * @author Joshua Donelly-Higgins
+ */
+class CountyIndex {
+    private HashMap<String, County> counties;
+
+    /**
+     * Constructs an empty CountyIndex
+     */
+    CountyIndex() {
+        counties = new HashMap<>();
+    }
+
+    /**
+     * Adds a name to the index and updates the total count for its county
+     * @param name the Name object to index
+     */
+    void add(Name name) {
+        County county = counties.get(name.getCounty());
+        if (county == null) {
+            county = new County();
+            counties.put(name.getCounty(), county);
+        }
+        ArrayList<Name> names = county.names.get(name.getName());
+        if (names == null) {
+            names = new ArrayList<>(2);
+            county.names.put(name.getName(), names);
+        }
+        names.add(name);
+        county.totalCount += name.getCount();
+    }
+
+    /**
+     * Removes a name from the index and updates the total count for its county
+     * If the name is not indexed, the index remains unchanged
+     * @param name the Name object to remove
+     * @return true if the name was removed, false otherwise
+     */
+    boolean remove(Name name) {
+        County county = counties.get(name.getCounty());
+        if (county == null) return false;
+        ArrayList<Name> names = county.names.get(name.getName());
+        if (names == null || !names.remove(name)) return false;
+
+        if (names.isEmpty()) county.names.remove(name.getName());
+        county.totalCount -= name.getCount();
+        if (county.names.isEmpty()) counties.remove(name.getCounty());
+        return true;
+    }
+
+    /**
+     * Gets the total count for a county
+     * @param county String county
+     * @return total count for the county, 0 if the county is not indexed
+     */
+    int getTotalCount(String county) {
+        County entry = counties.get(county);
+        if (entry == null) return 0;
+        return entry.totalCount;
+    }
+
+    /**
+     * Gets the Name objects for a name within a county
+     * The returned list is owned by the index and must not be modified
+     * @param name String name
+     * @param county String county
+     * @return list of matching Name objects, empty if there are none
+     */
+    ArrayList<Name> getNames(String name, String county) {
+        County entry = counties.get(county);
+        if (entry == null) return EMPTY;
+        ArrayList<Name> names = entry.names.get(name);
+        if (names == null) return EMPTY;
+        return names;
+    }
+
+    private static final ArrayList<Name> EMPTY = new ArrayList<>(0);
+
+    /**
+     * Index entry for a single county
+     */
+    private static class County {
+        private int totalCount;
+        private HashMap<String, ArrayList<Name>> names = new HashMap<>();
+    }
+}
@@ -0,0 +1,139 @@
+package project5;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded cache of the per-year fractions of name/county queries
+ * Entries are kept in least recently used order and the oldest one is dropped when the cache is full.
+ * Each entry remembers the version of every YearNames it was computed from (other kinds of years
+ * cannot change); when a year has changed since, only that year's value is recomputed on the next
+ * lookup, so adding names never requires clearing the cache.
+ * All methods are synchronized, so one cache can be shared by several threads.
+ * The latency of every lookup of a year is recorded in Metrics, by year and county.
+ * @author Joshua Donelly-Higgins
+ */
+public class FractionCache {
+    private List<? extends YearStore> years;
+    private LinkedHashMap<NameCountyQuery, Entry> entries;
+    private long hits;
+    private long misses;
+
+    /**
+     * Constructs an empty cache
+     * @param years the years to query, in the order of the returned series
+     * @param capacity maximum number of queries kept, at least 1
+     */
+    public FractionCache(List<? extends YearStore> years, int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Invalid capacity given.");
+        this.years = years;
+        //access order: iteration starts at the least recently used entry
+        entries = new LinkedHashMap<NameCountyQuery, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<NameCountyQuery, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Gets the fraction of babies born with a name within a county, for every year
+     * Gives the same values as calling getFractionByNameCounty on each year
+     * @param name String input name
+     * @param county String input county, or "all"
+     * @return fractions from 0 to 1, one per year in list order; a copy the caller may modify
+     */
+    public synchronized double[] getFractions(String name, String county) {
+        NameCountyQuery query = new NameCountyQuery(name, county);
+        Entry entry = entries.get(query);
+        if (entry == null) {
+            misses++;
+            entry = new Entry(years.size());
+            for (int j = 0; j < entry.fractions.length; j++) compute(query, entry, j);
+            entries.put(query, entry);
+        } else {
+            boolean stale = false;
+            for (int j = 0; j < entry.fractions.length; j++) {
+                if (entry.versions[j] != version(years.get(j))) {
+                    compute(query, entry, j);
+                    stale = true;
+                }
+            }
+            if (stale) misses++;
+            else hits++;
+        }
+        return entry.fractions.clone();
+    }
+
+    /**
+     * Getter for hits
+     * @return number of lookups answered without computing a fraction
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Getter for misses
+     * @return number of lookups that computed at least one fraction
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of cached queries
+     * @return number of entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Removes every entry; the hit and miss counters are kept
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Computes the fraction of one year of an entry
+     * @param query the query
+     * @param entry the entry to update
+     * @param index index of the year
+     */
+    private void compute(NameCountyQuery query, Entry entry, int index) {
+        YearStore year = years.get(index);
+        entry.versions[index] = version(year);
+        long start = System.nanoTime();
+        entry.fractions[index] = year.getFractionByNameCounty(query.getName(), query.getCounty());
+        Metrics.getInstance().recordLookup(year, query.getCounty(), System.nanoTime() - start);
+    }
+
+    /**
+     * Gets the version of a year
+     * @param year the year
+     * @return the version of a YearNames object, 0 for years that cannot change
+     */
+    private static long version(YearStore year) {
+        return year instanceof YearNames ? ((YearNames) year).getVersion() : 0;
+    }
+
+    /**
+     * The cached series of one query and the versions of the years it was computed from
+     */
+    private static class Entry {
+        private double[] fractions;
+        private long[] versions;
+
+        /**
+         * Constructs an entry
+         * @param size number of years
+         */
+        Entry(int size) {
+            fractions = new double[size];
+            versions = new long[size];
+        }
+    }
+}
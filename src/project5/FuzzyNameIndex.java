@@ -0,0 +1,157 @@
+package project5;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Finds the spelling variants of a name, such as "aiden", "ayden" and "aidan", and sums their counts
+ *
+ * Built once over the distinct names of the years, it keeps two indexes of that vocabulary:
+ * names grouped by their Soundex key, and a BK-tree for names within an edit distance.
+ * Lookups only search the vocabulary; the counts of the variants found are then read from each
+ * year with one getCountByNameCounty call per variant, so no tree is scanned.
+ * Names added to the years later are not indexed.
+ * @author Joshua Donelly-Higgins
+ */
+public class FuzzyNameIndex {
+    //Soundex digit of each letter from a to z; '0' for vowels, which separate equal digits, '-' for h and w, which don't
+    private static final String SOUNDEX_CODES = "0123012-02245501262301-202";
+
+    private List<? extends YearStore> years;
+    //names by Soundex key, each list sorted
+    private HashMap<String, ArrayList<String>> phonetic;
+    private BKTree spellings;
+
+    /**
+     * Builds the indexes over the distinct names of the years
+     * @param years the years to index, which are also the years counts are summed for
+     */
+    public FuzzyNameIndex(List<? extends YearStore> years) {
+        this.years = years;
+        TreeSet<String> vocabulary = new TreeSet<>();
+        for (YearStore element : years) element.forEachDistinctName(vocabulary::add);
+
+        phonetic = new HashMap<>();
+        spellings = new BKTree();
+        for (String name : vocabulary) { //sorted, so the lists of the phonetic index stay sorted
+            String key = soundex(name);
+            if (!key.isEmpty()) phonetic.computeIfAbsent(key, k -> new ArrayList<>()).add(name);
+        }
+
+        //adding the names in random order keeps the BK-tree shallow
+        ArrayList<String> shuffled = new ArrayList<>(vocabulary);
+        Collections.shuffle(shuffled, new Random(vocabulary.size()));
+        for (String name : shuffled) spellings.add(name);
+    }
+
+    /**
+     * Computes the American Soundex key of a name: its first letter and three digits for the following consonant sounds
+     * Characters other than the letters a to z are ignored
+     * @param name String input name
+     * @return key such as "A350", or "" if the name has no letters
+     */
+    public static String soundex(String name) {
+        char[] key = {'0', '0', '0', '0'};
+        int length = 0;
+        char last = 0;
+        for (int i = 0; i < name.length() && length < 4; i++) {
+            char c = Character.toLowerCase(name.charAt(i));
+            if (c < 'a' || c > 'z') continue;
+            char code = SOUNDEX_CODES.charAt(c - 'a');
+            if (length == 0) {
+                key[length++] = Character.toUpperCase(c);
+                last = code;
+            } else if (code == '0') {
+                last = code;
+            } else if (code != '-' && code != last) {
+                key[length++] = code;
+                last = code;
+            }
+        }
+        return length == 0 ? "" : new String(key);
+    }
+
+    /**
+     * Gets the names that sound like a name
+     * @param name String input name
+     * @return sorted list of the known names with the same Soundex key, including the name itself if it is known
+     */
+    public ArrayList<String> getPhoneticMatches(String name) {
+        ArrayList<String> matches = phonetic.get(soundex(name));
+        return matches == null ? new ArrayList<>() : new ArrayList<>(matches);
+    }
+
+    /**
+     * Gets the names within an edit distance of a name
+     * @param name String input name
+     * @param maxDistance largest number of inserted, deleted or substituted letters
+     * @return sorted list of the known names within that distance
+     */
+    public ArrayList<String> getSimilarNames(String name, int maxDistance) {
+        if (maxDistance < 0) throw new IllegalArgumentException("Invalid distance given.");
+        ArrayList<String> matches = spellings.search(name.toLowerCase(), maxDistance);
+        Collections.sort(matches);
+        return matches;
+    }
+
+    /**
+     * Gets the summed count of the names that sound like a name, per year
+     * @param name String input name
+     * @param county String input county, or "all"
+     * @return total count per year, in the order of the years the index was built from
+     */
+    public int[] getPhoneticCounts(String name, String county) {
+        return getCounts(getPhoneticMatches(name), county);
+    }
+
+    /**
+     * Gets the summed count of the names within an edit distance of a name, per year
+     * @param name String input name
+     * @param maxDistance largest number of inserted, deleted or substituted letters
+     * @param county String input county, or "all"
+     * @return total count per year, in the order of the years the index was built from
+     */
+    public int[] getSimilarCounts(String name, int maxDistance, String county) {
+        return getCounts(getSimilarNames(name, maxDistance), county);
+    }
+
+    /**
+     * Gets the summed count of several names, per year
+     * @param names the names to sum
+     * @param county String input county, or "all"
+     * @return total count per year, in the order of the years the index was built from
+     */
+    public int[] getCounts(Collection<String> names, String county) {
+        return getCounts(names, county, years);
+    }
+
+    /**
+     * Gets the summed count of several names, per year of a given list
+     * Used to sum the variants over a newer version of the years than the index was built from
+     * @param names the names to sum
+     * @param county String input county, or "all"
+     * @param years the years to sum over
+     * @return total count per year, in list order
+     */
+    public static int[] getCounts(Collection<String> names, String county, List<? extends YearStore> years) {
+        int[] counts = new int[years.size()];
+        for (int j = 0; j < counts.length; j++) {
+            YearStore year = years.get(j);
+            for (String name : names) counts[j] += year.getCountByNameCounty(name, county);
+        }
+        return counts;
+    }
+
+    /**
+     * Getter for years
+     * @return the years counts are summed for
+     */
+    public List<? extends YearStore> getYears() {
+        return years;
+    }
+}
@@ -0,0 +1,94 @@
+package project5;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * An extension of AVLTree that ranks names by their total count
+ * Keeps one NameTotal per name, ordered from most to least popular,
+ * and updates it incrementally as counts are added or removed
+ * Node weights are the total counts, so the count covered by the top names is an O(log n) query
+ * @author Joshua Donelly-Higgins
+ */
+class Leaderboard extends AVLTree<NameTotal> {
+    private HashMap<String, NameTotal> totals;
+
+    /**
+     * Constructs an empty Leaderboard
+     */
+    Leaderboard() {
+        totals = new HashMap<>();
+    }
+
+    /**
+     * Changes the total count of a name, re-ranking it
+     * A name whose total drops to 0 is removed
+     * @param name String name
+     * @param delta amount to add to the total count, may be negative
+     */
+    void addCount(String name, int delta) {
+        if (delta == 0) return;
+        NameTotal old = totals.get(name);
+        int count = delta;
+        if (old != null) {
+            remove(old);
+            count += old.getCount();
+        }
+        if (count > 0) {
+            NameTotal total = new NameTotal(name, count);
+            totals.put(name, total);
+            add(total);
+        } else {
+            totals.remove(name);
+        }
+    }
+
+    /**
+     * Replaces the contents with the given totals using a bulk build
+     * @param counts total count per name
+     */
+    void rebuild(HashMap<String, Integer> counts) {
+        ArrayList<NameTotal> entries = new ArrayList<>(counts.size());
+        totals = new HashMap<>();
+        for (String name : counts.keySet()) {
+            NameTotal total = new NameTotal(name, counts.get(name));
+            entries.add(total);
+            totals.put(name, total);
+        }
+        root = null;
+        numOfElements = 0;
+        addAll(entries);
+    }
+
+    /**
+     * Gets the popularity rank of a name
+     * @param name String name
+     * @return rank starting at 1 for the most popular name, 0 if the name does not occur
+     */
+    int getRank(String name) {
+        NameTotal total = totals.get(name);
+        if (total == null) return 0;
+        return rank(total) + 1;
+    }
+
+    /**
+     * Gets the name at a popularity rank
+     * @param rank rank starting at 1 for the most popular name
+     * @return the NameTotal at that rank, or null if there are fewer names
+     */
+    NameTotal getByRank(int rank) {
+        if (rank < 1) throw new IllegalArgumentException("Invalid rank given.");
+        if (rank > size()) return null;
+        return select(rank - 1);
+    }
+
+    /**
+     * Weighs each entry by its total count
+     * @param item the NameTotal
+     * @return total count of the entry
+     */
+    @Override
+    protected long weight(NameTotal item) {
+        return item.getCount();
+    }
+}
@@ -0,0 +1,110 @@
+package project5;
+
+import java.util.HashMap;
+
+/**
+ * The leaderboards of one year: one Leaderboard per combination of county and gender,
+ * where either may be "all"
+ * Every name added to a year updates four leaderboards: all counties and genders, its county,
+ * its gender, and its county and gender together
+ * @author Joshua Donelly-Higgins
+ */
+class Leaderboards {
+    private static final String ALL = "all";
+
+    //leaderboards by county (or "all"), each indexed by gender: all, m, f
+    private HashMap<String, Leaderboard[]> boards;
+
+    /**
+     * Constructs empty leaderboards
+     */
+    Leaderboards() {
+        boards = new HashMap<>();
+        boards.put(ALL, newBoards());
+    }
+
+    /**
+     * Changes the count of a name on every leaderboard it belongs to
+     * @param name the Name object
+     * @param delta amount to add to the total count of the name, may be negative
+     */
+    void addCount(Name name, int delta) {
+        int gender = genderIndex(name.getGender());
+        Leaderboard[] all = boards.get(ALL);
+        Leaderboard[] county = boards.get(name.getCounty());
+        if (county == null) {
+            county = newBoards();
+            boards.put(name.getCounty(), county);
+        }
+        all[0].addCount(name.getName(), delta);
+        all[gender].addCount(name.getName(), delta);
+        county[0].addCount(name.getName(), delta);
+        county[gender].addCount(name.getName(), delta);
+    }
+
+    /**
+     * Replaces the contents with the names of a tree, bulk building every leaderboard
+     * @param tree the tree of names to rank
+     */
+    void rebuild(AVLTree<Name> tree) {
+        //total count per name for every leaderboard
+        HashMap<String, HashMap<String, Integer>[]> counts = new HashMap<>();
+        counts.put(ALL, newCounts());
+        tree.forEach(name -> {
+            int gender = genderIndex(name.getGender());
+            HashMap<String, Integer>[] all = counts.get(ALL);
+            HashMap<String, Integer>[] county = counts.computeIfAbsent(name.getCounty(), key -> newCounts());
+            all[0].merge(name.getName(), name.getCount(), Integer::sum);
+            all[gender].merge(name.getName(), name.getCount(), Integer::sum);
+            county[0].merge(name.getName(), name.getCount(), Integer::sum);
+            county[gender].merge(name.getName(), name.getCount(), Integer::sum);
+        });
+
+        boards = new HashMap<>();
+        for (String county : counts.keySet()) {
+            Leaderboard[] countyBoards = newBoards();
+            for (int i = 0; i < countyBoards.length; i++) countyBoards[i].rebuild(counts.get(county)[i]);
+            boards.put(county, countyBoards);
+        }
+    }
+
+    /**
+     * Gets the leaderboard for a county and gender
+     * @param county String county, or "all"
+     * @param gender String gender "m" or "f", or "all"
+     * @return the leaderboard, or null if no names were added for the county
+     */
+    Leaderboard get(String county, String gender) {
+        Leaderboard[] countyBoards = boards.get(county.equalsIgnoreCase(ALL) ? ALL : county);
+        if (countyBoards == null) return null;
+        return countyBoards[gender.equalsIgnoreCase(ALL) ? 0 : genderIndex(gender)];
+    }
+
+    /**
+     * Gets the index of a gender within the leaderboards of a county
+     * @param gender String gender "m" or "f"
+     * @return 1 for "m", 2 for "f"
+     */
+    private static int genderIndex(String gender) {
+        if (gender.equalsIgnoreCase("m")) return 1;
+        if (gender.equalsIgnoreCase("f")) return 2;
+        throw new IllegalArgumentException("Invalid gender argument given.");
+    }
+
+    /**
+     * Creates the empty leaderboards of a county
+     * @return leaderboards indexed by gender
+     */
+    private static Leaderboard[] newBoards() {
+        return new Leaderboard[] {new Leaderboard(), new Leaderboard(), new Leaderboard()};
+    }
+
+    /**
+     * Creates empty count maps for the leaderboards of a county
+     * @return maps indexed by gender
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static HashMap<String, Integer>[] newCounts() {
+        return new HashMap[] {new HashMap<>(), new HashMap<>(), new HashMap<>()};
+    }
+}
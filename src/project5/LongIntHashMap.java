@@ -0,0 +1,96 @@
+package project5;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from primitive long keys to primitive int values
+ * Avoids boxing so that lookups do not allocate
+ * @author Joshua Donelly-Higgins
+ */
+class LongIntHashMap {
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    /**
+     * Constructs a map sized to hold the expected number of entries without resizing
+     * @param expected expected number of entries
+     */
+    LongIntHashMap(int expected) {
+        int capacity = 16;
+        while (capacity < expected * 2) capacity <<= 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Adds amount to the value stored for key, inserting the key if necessary
+     * @param key key, must not be Long.MIN_VALUE
+     * @param amount amount to add
+     */
+    void addTo(long key, int amount) {
+        if (key == EMPTY) throw new IllegalArgumentException("Invalid key given.");
+        if ((size + 1) * 2 > keys.length) resize();
+        int slot = slot(key);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] += amount;
+    }
+
+    /**
+     * Gets the value for a key
+     * @param key key to look up
+     * @return the value, or 0 if the key is not in the map
+     */
+    int get(long key) {
+        int slot = slot(key);
+        if (keys[slot] == EMPTY) return 0;
+        return values[slot];
+    }
+
+    /**
+     * Getter for the number of keys in the map
+     * @return size
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Finds the slot holding key, or the empty slot where it would be inserted
+     * @param key key to look up
+     * @return index into keys
+     */
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        long hash = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Doubles the capacity of the map and reinserts all entries
+     */
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package project5;
+
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+/**
+ * The names of one year of a BinarySnapshot, read directly from the mapped file
+ * The columns are laid out like those of ColumnarYearNames but use the sorted snapshot ids,
+ * so ranges are found by binary searching ints
+ * @author Joshua Donelly-Higgins
+ */
+class MappedYearNames implements YearStore {
+    private BinarySnapshot snapshot;
+    private ByteBuffer buffer;
+    private int year;
+    private int totalCount;
+    private int size;
+
+    //offsets of the columns in the buffer
+    private int nameIds;
+    private int countyIds;
+    private int counts;
+    private int countyTotals;
+
+    /**
+     * Constructs a view of one year of a snapshot
+     * @param snapshot the snapshot the year belongs to
+     * @param year the year
+     * @param totalCount total count of the year
+     * @param size number of entries
+     * @param offset offset of the first column in the mapped file
+     */
+    MappedYearNames(BinarySnapshot snapshot, int year, int totalCount, int size, int offset) {
+        this.snapshot = snapshot;
+        this.buffer = snapshot.getBuffer();
+        this.year = year;
+        this.totalCount = totalCount;
+        this.size = size;
+        nameIds = offset;
+        countyIds = nameIds + size * 4;
+        counts = countyIds + size * 4;
+        countyTotals = counts + size * 4 + size; //after the gender column
+    }
+
+    /**
+     * Getter for year
+     * @return year
+     */
+    @Override
+    public int getYear() {
+        return year;
+    }
+
+    /**
+     * Getter for totalCount
+     * @return totalCount
+     */
+    @Override
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Gets the total count by name
+     * @param name String input name
+     * @return the total count for entries with that name
+     */
+    @Override
+    public int getCountByName (String name) {
+        int nameId = snapshot.getNameId(name);
+        if (nameId < 0) return 0;
+
+        int currentCount = 0;
+        for (int i = lowerBound(nameId, 0); i < size && nameId(i) == nameId; i++) {
+            currentCount += buffer.getInt(counts + i * 4);
+        }
+        return currentCount;
+    }
+
+    /**
+     * Gets the total count for a county
+     * if county.equals("all"), get totalCount
+     * @param county String input county
+     * @return total count for a county
+     */
+    @Override
+    public int getTotalCountCounty (String county) {
+        if (county.equals("all")) {return getTotalCount();}
+
+        int countyId = snapshot.getCountyId(county);
+        if (countyId < 0) return 0;
+        return buffer.getInt(countyTotals + countyId * 4);
+    }
+
+    /**
+     * Gets the total count by name within a county
+     * if county.equals("all"), get the count by name
+     * @param name String input name
+     * @param county String input county
+     * @return the total count for entries with that name and county
+     */
+    @Override
+    public int getCountByNameCounty (String name, String county) {
+        if (county.equalsIgnoreCase("all")) {return getCountByName(name);}
+
+        int nameId = snapshot.getNameId(name);
+        int countyId = snapshot.getCountyId(county);
+        if (nameId < 0 || countyId < 0) return 0;
+
+        int currentCount = 0;
+        for (int i = lowerBound(nameId, countyId); i < size && nameId(i) == nameId && countyId(i) == countyId; i++) {
+            currentCount += buffer.getInt(counts + i * 4);
+        }
+        return currentCount;
+    }
+
+    /**
+     * Gets the fraction of babies born with a name within a county for a year
+     * @param name String input name
+     * @param county String input county
+     * @return double from 0 to 1
+     */
+    @Override
+    public double getFractionByNameCounty (String name, String county) {
+        int totalCounty = getTotalCountCounty(county);
+        if (totalCounty == 0) return 0;
+        return ((double) getCountByNameCounty(name, county) / totalCounty);
+    }
+
+    /**
+     * Performs an action on each distinct name of the year, once per name, in alphabetical order
+     * @param action action to perform
+     */
+    @Override
+    public void forEachDistinctName (Consumer<String> action) {
+        for (int i = 0; i < size; i++) {
+            int nameId = nameId(i);
+            if (i == 0 || nameId != nameId(i - 1)) action.accept(snapshot.getName(nameId));
+        }
+    }
+
+    /**
+     * Finds the first entry that is not before the given name and county ids
+     * @param nameId lower bound for the name id
+     * @param countyId lower bound for the county id within the name
+     * @return index of the first such entry, or size if there is none
+     */
+    private int lowerBound (int nameId, int countyId) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int comparison = Integer.compare(nameId(middle), nameId);
+            if (comparison == 0) comparison = Integer.compare(countyId(middle), countyId);
+            if (comparison < 0) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * Gets the name id of an entry
+     * @param index index of the entry
+     * @return snapshot id of the name
+     */
+    private int nameId (int index) {
+        return buffer.getInt(nameIds + index * 4);
+    }
+
+    /**
+     * Gets the county id of an entry
+     * @param index index of the entry
+     * @return snapshot id of the county
+     */
+    private int countyId (int index) {
+        return buffer.getInt(countyIds + index * 4);
+    }
+
+    /**
+     * Returns a String representation of MappedYearNames
+     * @return "List of names for year [year]"
+     */
+    @Override
+    public String toString() {
+        return String.format("List of names for year %d", getYear());
+    }
+}
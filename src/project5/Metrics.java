@@ -0,0 +1,382 @@
+package project5;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide metrics of loading and querying
+ *
+ * Holds the row counts and phase times of the load, the size, height and rotations of the tree of
+ * each loaded year (copied when recorded, so the trees themselves can still be freed), and latency
+ * histograms of queries by kind and of single-year lookups by year and by county. Lookups within a
+ * county the year has no names for are pooled under OTHER_COUNTY, so bad input cannot add histograms.
+ * Recording is lock-free, so it can stay on in the hot paths.
+ * The metrics are exposed through JMX once register is called, and can be printed periodically.
+ * @author Joshua Donelly-Higgins
+ */
+public class Metrics implements MetricsMBean {
+    private static final String OBJECT_NAME = "project5:type=Metrics";
+    private static final Metrics INSTANCE = new Metrics();
+    //county that lookups within an unknown county are recorded under
+    public static final String OTHER_COUNTY = "(other)";
+
+    private volatile long rowsParsed;
+    private volatile long rowsRejected;
+    //nanoseconds per load phase, in the order the phases were first recorded; guarded by itself
+    private LinkedHashMap<String, Long> phases = new LinkedHashMap<>();
+    //statistics of the loaded trees by year
+    private volatile TreeMap<Integer, TreeStats> trees = new TreeMap<>();
+
+    private ConcurrentHashMap<String, LatencyHistogram> queries = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<Integer, LatencyHistogram> years = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<String, LatencyHistogram> counties = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService dumper;
+
+    /**
+     * Constructs empty metrics; use getInstance for the ones the program records to
+     */
+    Metrics() {
+    }
+
+    /**
+     * Gets the metrics of this process
+     * @return the shared instance
+     */
+    public static Metrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Adds the rows and phase times counted by a loader
+     * @param loader a loader that has finished loading
+     */
+    public synchronized void recordLoad(CSVLoader loader) {
+        rowsParsed += loader.getRowsParsed();
+        rowsRejected += loader.getRowsRejected();
+        recordPhase("parse", loader.getParseNanos());
+        recordPhase("build", loader.getBuildNanos());
+    }
+
+    /**
+     * Adds time to a load phase
+     * @param phase name of the phase
+     * @param nanos time spent in nanoseconds
+     */
+    public void recordPhase(String phase, long nanos) {
+        synchronized (phases) {
+            phases.merge(phase, nanos, Long::sum);
+        }
+    }
+
+    /**
+     * Records the size, height and rotations of the loaded trees, replacing earlier ones
+     * No reference to the trees is kept
+     * @param loaded the loaded years
+     */
+    public void recordTrees(Collection<YearNames> loaded) {
+        TreeMap<Integer, TreeStats> map = new TreeMap<>();
+        for (YearNames element : loaded) map.put(element.getYear(), new TreeStats(element));
+        trees = map;
+    }
+
+    /**
+     * Records the latency of a query
+     * @param kind kind of query, such as "interactive", "/fraction" or "batch-chunk"
+     * @param nanos latency in nanoseconds
+     */
+    public void recordQuery(String kind, long nanos) {
+        histogram(queries, kind).record(nanos);
+    }
+
+    /**
+     * Records the latency of a lookup within one year
+     * @param year the year looked up
+     * @param county the county looked up, or "all"; counted under OTHER_COUNTY if the year has no names in it
+     * @param nanos latency in nanoseconds
+     */
+    public void recordLookup(YearStore year, String county, long nanos) {
+        recordYear(year.getYear(), nanos);
+        //only counties in the data get their own histogram, not every string a client sends
+        if (!county.equals("all") && year.getTotalCountCounty(county) == 0) county = OTHER_COUNTY;
+        histogram(counties, county).record(nanos);
+    }
+
+    /**
+     * Records the latency of work within one year that is not tied to a single county,
+     * such as answering a whole batch chunk for that year
+     * @param year the year
+     * @param nanos latency in nanoseconds
+     */
+    public void recordYear(int year, long nanos) {
+        histogram(years, year).record(nanos);
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server
+     * @return true if they were registered, false if the name is taken or JMX is unavailable
+     */
+    public boolean register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+            return true;
+        } catch (JMException | SecurityException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Prints dump() periodically from a daemon thread, replacing an earlier schedule
+     * @param periodSeconds seconds between reports, at least 1
+     * @param out stream to print to
+     */
+    public synchronized void startDumping(long periodSeconds, PrintStream out) {
+        if (periodSeconds < 1) throw new IllegalArgumentException("Invalid interval given.");
+        stopDumping();
+        dumper = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleAtFixedRate(() -> out.print(dump()), periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the periodic reports, if any
+     */
+    public synchronized void stopDumping() {
+        if (dumper != null) dumper.shutdownNow();
+        dumper = null;
+    }
+
+    /**
+     * Getter for rowsParsed
+     * @return rows parsed into a Name by the recorded loads
+     */
+    @Override
+    public long getRowsParsed() {
+        return rowsParsed;
+    }
+
+    /**
+     * Getter for rowsRejected
+     * @return rows skipped by the recorded loads
+     */
+    @Override
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    /**
+     * Gets the names of the recorded load phases
+     * @return phases in the order they were first recorded
+     */
+    @Override
+    public String[] getPhases() {
+        synchronized (phases) {
+            return phases.keySet().toArray(new String[0]);
+        }
+    }
+
+    /**
+     * Gets the time spent in a load phase
+     * @param phase name of the phase
+     * @return milliseconds, 0 for an unknown phase
+     */
+    @Override
+    public double getPhaseMillis(String phase) {
+        Long nanos;
+        synchronized (phases) {
+            nanos = phases.get(phase);
+        }
+        return nanos == null ? 0 : nanos / 1e6;
+    }
+
+    /**
+     * Gets the years whose tree statistics were recorded at load
+     * @return years in ascending order
+     */
+    @Override
+    public int[] getYears() {
+        return trees.keySet().stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Gets the height of the tree of a year
+     * @param year the year
+     * @return height, 0 if the year is not tracked
+     */
+    @Override
+    public int getTreeHeight(int year) {
+        TreeStats tree = trees.get(year);
+        return tree == null ? 0 : tree.height;
+    }
+
+    /**
+     * Gets the number of names in the tree of a year
+     * @param year the year
+     * @return size, 0 if the year is not tracked
+     */
+    @Override
+    public int getTreeSize(int year) {
+        TreeStats tree = trees.get(year);
+        return tree == null ? 0 : tree.size;
+    }
+
+    /**
+     * Gets the number of rotations done by the tree of a year
+     * @param year the year
+     * @return rotations, 0 if the year is not tracked
+     */
+    @Override
+    public long getTreeRotations(int year) {
+        TreeStats tree = trees.get(year);
+        return tree == null ? 0 : tree.rotations;
+    }
+
+    /**
+     * Gets the kinds of queries that were timed
+     * @return kinds, sorted
+     */
+    @Override
+    public String[] getQueryKinds() {
+        ArrayList<String> kinds = new ArrayList<>(queries.keySet());
+        Collections.sort(kinds);
+        return kinds.toArray(new String[0]);
+    }
+
+    /**
+     * Gets the number of timed queries of a kind
+     * @param kind kind of query
+     * @return count, 0 for an unknown kind
+     */
+    @Override
+    public long getQueryCount(String kind) {
+        LatencyHistogram histogram = queries.get(kind);
+        return histogram == null ? 0 : histogram.getCount();
+    }
+
+    /**
+     * Gets a latency percentile of a kind of query
+     * @param kind kind of query
+     * @param percentile from 0 to 100
+     * @return microseconds, 0 for an unknown kind
+     */
+    @Override
+    public double getQueryLatencyMicros(String kind, double percentile) {
+        return micros(queries.get(kind), percentile);
+    }
+
+    /**
+     * Gets a latency percentile of the lookups of a year
+     * @param year the year
+     * @param percentile from 0 to 100
+     * @return microseconds, 0 if no lookup of the year was timed
+     */
+    @Override
+    public double getYearLatencyMicros(int year, double percentile) {
+        return micros(years.get(year), percentile);
+    }
+
+    /**
+     * Gets a latency percentile of the lookups within a county
+     * @param county the county, "all" or OTHER_COUNTY
+     * @param percentile from 0 to 100
+     * @return microseconds, 0 if no lookup of the county was timed
+     */
+    @Override
+    public double getCountyLatencyMicros(String county, double percentile) {
+        return micros(counties.get(county), percentile);
+    }
+
+    /**
+     * Formats every metric as text: load, trees, then latencies in microseconds
+     * @return report with one metric per line
+     */
+    @Override
+    public String dump() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("metrics at %tT%n", System.currentTimeMillis()));
+        report.append(String.format("load rows parsed=%d rejected=%d%n", rowsParsed, rowsRejected));
+        for (String phase : getPhases()) {
+            report.append(String.format("load phase %s %.1f ms%n", phase, getPhaseMillis(phase)));
+        }
+        for (Map.Entry<Integer, TreeStats> entry : trees.entrySet()) {
+            TreeStats tree = entry.getValue();
+            report.append(String.format("tree %d size=%d height=%d rotations=%d%n",
+                    entry.getKey(), tree.size, tree.height, tree.rotations));
+        }
+        for (String kind : getQueryKinds()) appendLatency(report, "query " + kind, queries.get(kind));
+        for (Map.Entry<Integer, LatencyHistogram> entry : new TreeMap<>(years).entrySet()) {
+            appendLatency(report, "year " + entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(counties).entrySet()) {
+            appendLatency(report, "county " + entry.getKey(), entry.getValue());
+        }
+        return report.toString();
+    }
+
+    /**
+     * Appends one line of latency statistics to a report
+     * @param report the report
+     * @param label what was timed
+     * @param histogram its latencies
+     */
+    private static void appendLatency(StringBuilder report, String label, LatencyHistogram histogram) {
+        report.append(String.format("%s count=%d mean=%.1f p50=%.1f p99=%.1f p99.9=%.1f max=%.1f us%n",
+                label, histogram.getCount(), histogram.getMean() / 1e3, histogram.getPercentile(50) / 1e3,
+                histogram.getPercentile(99) / 1e3, histogram.getPercentile(99.9) / 1e3, histogram.getMax() / 1e3));
+    }
+
+    /**
+     * Gets a percentile of a histogram in microseconds
+     * @param histogram the histogram, may be null
+     * @param percentile from 0 to 100
+     * @return microseconds, 0 if the histogram is null
+     */
+    private static double micros(LatencyHistogram histogram, double percentile) {
+        return histogram == null ? 0 : histogram.getPercentile(percentile) / 1e3;
+    }
+
+    /**
+     * Gets the histogram of a key, creating it on first use
+     * @param map histograms by key
+     * @param key the key
+     * @return the histogram
+     */
+    private static <K> LatencyHistogram histogram(ConcurrentHashMap<K, LatencyHistogram> map, K key) {
+        LatencyHistogram histogram = map.get(key);
+        return histogram != null ? histogram : map.computeIfAbsent(key, k -> new LatencyHistogram());
+    }
+
+    /**
+     * Size, height and rotations of a tree at the time they were recorded
+     */
+    private static class TreeStats {
+        private final int size;
+        private final int height;
+        private final long rotations;
+
+        /**
+         * Copies the statistics of a tree
+         * @param tree the tree
+         */
+        TreeStats(YearNames tree) {
+            size = tree.size();
+            height = tree.getHeight();
+            rotations = tree.getRotations();
+        }
+    }
+}
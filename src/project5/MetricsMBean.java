@@ -0,0 +1,104 @@
+package project5;
+
+/**
+ * Management interface of Metrics, registered with the platform MBean server as "project5:type=Metrics"
+ * Latencies are in microseconds and load times in milliseconds
+ * @author Joshua Donelly-Higgins
+ */
+public interface MetricsMBean {
+
+    /**
+     * Gets the number of .csv lines loaded
+     * @return rows parsed into a Name
+     */
+    long getRowsParsed();
+
+    /**
+     * Gets the number of .csv lines skipped
+     * @return rows that were incomplete or miss-formatted, including header lines
+     */
+    long getRowsRejected();
+
+    /**
+     * Gets the names of the recorded load phases
+     * @return phases in the order they were first recorded
+     */
+    String[] getPhases();
+
+    /**
+     * Gets the time spent in a load phase
+     * @param phase name of the phase, such as "parse" or "build"
+     * @return milliseconds, 0 for an unknown phase
+     */
+    double getPhaseMillis(String phase);
+
+    /**
+     * Gets the years whose tree statistics were recorded at load
+     * @return years in ascending order
+     */
+    int[] getYears();
+
+    /**
+     * Gets the height of the tree of a year
+     * @param year the year
+     * @return height, 0 if the year is not tracked
+     */
+    int getTreeHeight(int year);
+
+    /**
+     * Gets the number of names in the tree of a year
+     * @param year the year
+     * @return size, 0 if the year is not tracked
+     */
+    int getTreeSize(int year);
+
+    /**
+     * Gets the number of rotations done by the tree of a year
+     * @param year the year
+     * @return rotations, 0 if the year is not tracked
+     */
+    long getTreeRotations(int year);
+
+    /**
+     * Gets the kinds of queries that were timed
+     * @return kinds, sorted
+     */
+    String[] getQueryKinds();
+
+    /**
+     * Gets the number of timed queries of a kind
+     * @param kind kind of query, such as "interactive", "/fraction" or "batch-chunk"
+     * @return count, 0 for an unknown kind
+     */
+    long getQueryCount(String kind);
+
+    /**
+     * Gets a latency percentile of a kind of query
+     * @param kind kind of query
+     * @param percentile from 0 to 100
+     * @return microseconds, 0 for an unknown kind
+     */
+    double getQueryLatencyMicros(String kind, double percentile);
+
+    /**
+     * Gets a latency percentile of the lookups of a year
+     * @param year the year
+     * @param percentile from 0 to 100
+     * @return microseconds, 0 if no lookup of the year was timed
+     */
+    double getYearLatencyMicros(int year, double percentile);
+
+    /**
+     * Gets a latency percentile of the lookups within a county
+     * @param county the county, "all" or "(other)" for counties the data has no names in
+     * @param percentile from 0 to 100
+     * @return microseconds, 0 if no lookup of the county was timed
+     */
+    double getCountyLatencyMicros(String county, double percentile);
+
+    /**
+     * Formats every metric as text
+     * @return report with one metric per line
+     */
+    String dump();
+}
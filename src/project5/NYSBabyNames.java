@@ -1,21 +1,42 @@
 package project5;
 
 import java.util.ArrayList;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.util.Collections;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.util.Scanner;
 
 
 /**
  * This program:
- * opens a .csv of baby names (given as a command line argument),
+ * opens a .csv of baby names or a snapshot written by a previous run (given as a command line argument),
  * creates Name objects from each line,
  * sorts them by year into YearNames objects,
  * and allows the user to check the popularity of baby names over years until they quit
+ * Optional arguments after the file name:
+ * --aggregate  freezes each year into aggregate tables after loading for faster queries
+ * --threads n  loads the file using n worker threads
+ * --columnar   converts each year into compact read-only arrays after loading
+ * --write-snapshot file  writes the loaded years to a binary snapshot file that can be opened instead of the .csv
+ * --batch [file]  answers the queries in file (or standard input) without prompting, see BatchRunner
+ * --format csv|json  output format of --batch, csv by default
+ * --append file  appends the rows of another .csv, correcting the counts of rows already loaded; may be given several times
+ * --serve port  answers queries over HTTP on the port instead of prompting, see NameQueryServer;
+ *               needs a .csv and cannot be combined with --aggregate, --columnar or --batch
+ * --jmx  registers the load and query metrics with the platform MBean server, see Metrics
+ * --metrics-interval seconds  prints the metrics to standard error every given number of seconds
  * @author Joshua Donelly-Higgins
  */
 public class NYSBabyNames {
+    //number of name/county queries whose results are cached in interactive mode
+    private static final int CACHE_SIZE = 1024;
 
     public static void main(String[] args) {
 
@@ -25,6 +46,81 @@ public class NYSBabyNames {
             System.exit(1);
         }
 
+        //read optional arguments
+        boolean aggregate = false;
+        boolean columnar = false;
+        File snapshotFile = null;
+        int threads = 1;
+        boolean batch = false;
+        File batchFile = null;
+        boolean json = false;
+        int port = -1;
+        boolean jmx = false;
+        int metricsInterval = 0;
+        ArrayList<File> appendFiles = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--aggregate")) {
+                aggregate = true;
+            } else if (args[i].equals("--columnar")) {
+                columnar = true;
+            } else if (args[i].equals("--write-snapshot") && i + 1 < args.length) {
+                snapshotFile = new File(args[++i]);
+            } else if (args[i].equals("--batch")) {
+                batch = true;
+                if (i + 1 < args.length && !args[i + 1].startsWith("--")) batchFile = new File(args[++i]);
+            } else if (args[i].equals("--format") && i + 1 < args.length) {
+                String format = args[++i].toLowerCase();
+                if (!format.equals("csv") && !format.equals("json")) {
+                    System.err.println("Usage Error: --format expects csv or json.\n");
+                    System.exit(1);
+                }
+                json = format.equals("json");
+            } else if (args[i].equals("--append") && i + 1 < args.length) {
+                appendFiles.add(new File(args[++i]));
+            } else if (args[i].equals("--serve") && i + 1 < args.length) {
+                try {
+                    port = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException ex) {
+                    port = -1;
+                }
+                if (port < 0 || port > 65535) {
+                    System.err.println("Usage Error: --serve expects a port number.\n");
+                    System.exit(1);
+                }
+            } else if (args[i].equals("--jmx")) {
+                jmx = true;
+            } else if (args[i].equals("--metrics-interval") && i + 1 < args.length) {
+                try {
+                    metricsInterval = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException ex) {
+                    metricsInterval = 0;
+                }
+                if (metricsInterval < 1) {
+                    System.err.println("Usage Error: --metrics-interval expects a positive number of seconds.\n");
+                    System.exit(1);
+                }
+            } else if (args[i].equals("--threads") && i + 1 < args.length) {
+                try {
+                    threads = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException ex) {
+                    threads = 0;
+                }
+                if (threads < 1) {
+                    System.err.println("Usage Error: --threads expects a positive number.\n");
+                    System.exit(1);
+                }
+            } else {
+                System.err.println("Usage Error: unknown option " + args[i] + "\n");
+                System.exit(1);
+            }
+        }
+
+        //the server answers from its own copies of the loaded trees, so it cannot use these modes
+        if (port >= 0 && (aggregate || columnar || batch)) {
+            System.err.println("Usage Error: --serve cannot be used with --aggregate, --columnar or --batch.\n");
+            System.exit(1);
+        }
+
         //verify that command line argument contains a name of an existing file
         File dataFile = new File(args[0]);
         if (!dataFile.exists()) {
@@ -37,61 +133,83 @@ public class NYSBabyNames {
             System.exit(1);
         }
 
-        //open the file for reading
-        Scanner inData = null;
-
+        //expose the metrics before loading so a slow load can be watched
+        Metrics metrics = Metrics.getInstance();
+        if (jmx && !metrics.register()) System.err.println("Warning: the metrics could not be registered with JMX.\n");
+        if (metricsInterval > 0) metrics.startDumping(metricsInterval, System.err);
 
+        //read the content of the file and save the data, sorted by year
+        ArrayList<YearStore> list = new ArrayList<>();
         try {
-            inData = new Scanner(dataFile);
-        } catch (FileNotFoundException e) {
+            if (port >= 0) {
+                //Server Mode: the service keeps its own read-only copies of the years, built from a .csv
+                if (BinarySnapshot.isSnapshot(dataFile)) {
+                    System.err.println("Usage Error: --serve cannot be used with a snapshot file.\n");
+                    System.exit(1);
+                }
+                CSVLoader loader = loadCSV(dataFile, threads, appendFiles);
+                if (snapshotFile != null) BinarySnapshot.write(loader.getYears(), snapshotFile);
+                //answers on kept-alive connections would wait for delayed ACKs without TCP_NODELAY;
+                //the property is read when the first HttpServer is created, so it must be set before that
+                if (System.getProperty("sun.net.httpserver.nodelay") == null) System.setProperty("sun.net.httpserver.nodelay", "true");
+                try {
+                    NameQueryServer server = new NameQueryServer(new NameQueryService(loader.getYears()), new InetSocketAddress(port));
+                    server.start();
+                    System.out.println("Serving on port " + server.getAddress().getPort() + ".");
+                } catch (IOException e) {
+                    System.err.println("Error: cannot listen on port " + port + ".\n");
+                    System.exit(1);
+                }
+                return;
+            }
+            if (BinarySnapshot.isSnapshot(dataFile)) {
+                //snapshots are queried straight from the mapped file and cannot be appended to
+                if (!appendFiles.isEmpty()) {
+                    System.err.println("Usage Error: --append cannot be used with a snapshot file.\n");
+                    System.exit(1);
+                }
+                long start = System.nanoTime();
+                list = BinarySnapshot.open(dataFile).getYears();
+                metrics.recordPhase("open snapshot", System.nanoTime() - start);
+            } else {
+                CSVLoader loader = loadCSV(dataFile, threads, appendFiles);
+
+                long start = System.nanoTime();
+                if (snapshotFile != null) BinarySnapshot.write(loader.getYears(), snapshotFile);
+                long written = System.nanoTime();
+                if (snapshotFile != null) metrics.recordPhase("write snapshot", written - start);
+                for (YearNames element : loader.getYears()) {
+                    //freeze years into aggregate tables or convert them to arrays if requested
+                    if (aggregate) element.freeze();
+                    if (columnar) list.add(new ColumnarYearNames(element));
+                    else list.add(element);
+                }
+                if (aggregate || columnar) metrics.recordPhase("convert", System.nanoTime() - written);
+            }
+        } catch (IOException e) {
             System.err.println("Error: the file " + dataFile.getAbsolutePath() +
                     " cannot be opened for reading.\n");
             System.exit(1);
         }
 
-        //read the content of the file and save the data
-        ArrayList<YearNames> list = new ArrayList<YearNames>(10);
-        String line = null;
-        while (inData.hasNextLine()) {
-            try {
-                line = inData.nextLine();
-
-                //parse line and add to dataset
-                ArrayList<String> current = splitCSVLine(line);
-
-                //check line has correct number of elements
-                if (current.size() != 5) throw new IllegalArgumentException("Incomplete line.");
-
-                //add a year entry if necessary
-                boolean entryPresent = false;
-                for (YearNames element : list) {
-                    if (element.getYear() == Integer.parseInt(current.get(0))) {
-                        entryPresent = true;
-                        element.add(new Name(current.get(1), current.get(3), Integer.parseInt(current.get(4)), current.get(2)));
-                    }
-                }
-
-                if (entryPresent == false) {
-                    YearNames element = new YearNames(Integer.parseInt(current.get(0)));
-                    element.add(new Name(current.get(1), current.get(3), Integer.parseInt(current.get(4)), current.get(2)));
-                    list.add(element);
-
+        //Batch Mode
 
-                }
-
-            } catch (IllegalArgumentException ex) {
-                //caused by an incomplete or miss-formatted line in the input file
-                continue;
+        if (batch) {
+            try (InputStream in = batchFile == null ? System.in : new FileInputStream(batchFile)) {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+                BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+                new BatchRunner(list, json, writer).run(reader);
+            } catch (IOException e) {
+                System.err.println("Error: the queries could not be read or the results could not be written.\n");
+                System.exit(1);
             }
-
+            return;
         }
 
-        //sort data by year
-
-        Collections.sort(list);
-
         //Interactive Mode
 
+        //popular names are asked for repeatedly, so their series are cached
+        FractionCache cache = new FractionCache(list, CACHE_SIZE);
         Scanner userInput  = new Scanner (System.in );
         String userValueName;
         String userValueCounty;
@@ -111,14 +229,18 @@ public class NYSBabyNames {
 
                 //check if the name or county occurs
                 boolean zeroOccurences = true;
-                String printOutput = "";
+                StringBuilder printOutput = new StringBuilder();
 
-                for (YearNames element : list) {
-                    double val = element.getFractionByNameCounty(userValueName, userValueCounty);
+                long start = System.nanoTime();
+                double[] fractions = cache.getFractions(userValueName, userValueCounty);
+                metrics.recordQuery("interactive", System.nanoTime() - start);
+                for (int j = 0; j < list.size(); j++) {
+                    double val = fractions[j];
                     if (val > 0) zeroOccurences = false;
-                    printOutput += String.format("%d (%.4f) : ", element.getYear(), val * 100);
-                    for (int i = 0; i < Math.ceil(val * 10000); i++) printOutput += ("|");
-                    printOutput += "\n";
+                    printOutput.append(String.format("%d (%.4f) : ", list.get(j).getYear(), val * 100));
+                    int bars = (int) Math.ceil(val * 10000);
+                    for (int i = 0; i < bars; i++) printOutput.append('|');
+                    printOutput.append('\n');
                 }
 
                 //print if name occurs
@@ -132,6 +254,36 @@ public class NYSBabyNames {
 
     }
 
+    /**
+     * Loads a .csv file and then appends further .csv files to its years
+     * Exits with an error message if one of the files cannot be read
+     * The rows, load times and tree statistics of the loader are recorded in Metrics
+     * @param dataFile the .csv file to load
+     * @param threads number of worker threads for loading dataFile
+     * @param appendFiles the .csv files to append, in order
+     * @return the loader holding the years
+     */
+    private static CSVLoader loadCSV(File dataFile, int threads, ArrayList<File> appendFiles) {
+        CSVLoader loader = new CSVLoader();
+        File current = dataFile;
+        try {
+            if (threads > 1) loader.loadParallel(dataFile, threads);
+            else loader.load(dataFile);
+            for (File file : appendFiles) {
+                current = file;
+                loader.append(file);
+            }
+        } catch (IOException e) {
+            System.err.println("Error: the file " + current.getAbsolutePath() +
+                    " cannot be opened for reading.\n");
+            System.exit(1);
+        }
+        Metrics metrics = Metrics.getInstance();
+        metrics.recordLoad(loader);
+        metrics.recordTrees(loader.getYears());
+        return loader;
+    }
+
     /**
      * Splits the given line of a CSV file according to commas and double quotes
      * (double quotes are used to surround multi-word entries so that they may contain commas)
@@ -3,14 +3,21 @@ package project5;
 /**
  * The Name class acts as an object for a name for a specific year
  * It stores the name, count, and gender for the name
+ * Names and counties are dictionary encoded: each object stores int ids into the shared
+ * NAMES and COUNTIES symbol tables instead of its own Strings, and the gender as a single byte
+ * Name objects are immutable, so trees and their snapshots can share them; a changed count is a new object
  * @author Joshua Donelly-Higgins
  */
 public class Name implements Comparable<Name> {
 
+    //symbol tables shared by all Name objects
+    public static final SymbolTable NAMES = new SymbolTable();
+    public static final SymbolTable COUNTIES = new SymbolTable();
+
     private int count;
-    private String name;
-    private String gender;
-    private String county;
+    private int nameId;
+    private int countyId;
+    private byte gender; //either 'm' or 'f'
 
     /**
      * Constructs a new Name object
@@ -38,7 +45,15 @@ public class Name implements Comparable<Name> {
      * @return the String name attribute
      */
     public String getName () {
-        return name;
+        return NAMES.getSymbol(nameId);
+    }
+
+    /**
+     * getter for the id of the name in NAMES
+     * @return the int id of the name
+     */
+    public int getNameId () {
+        return nameId;
     }
 
     /**
@@ -46,35 +61,41 @@ public class Name implements Comparable<Name> {
      * @return the String gender attribute, either "m" or "f"
      */
     public String getGender () {
-        return gender;
+        return gender == 'm' ? "m" : "f";
     }
 
     /**
      * getter for county
      * @return the String county attribute
      */
-    public String getCounty () { return county; }
+    public String getCounty () { return COUNTIES.getSymbol(countyId); }
+
+    /**
+     * getter for the id of the county in COUNTIES
+     * @return the int id of the county
+     */
+    public int getCountyId () { return countyId; }
 
     /**
      * setter for name, setting the name to lowercase text
      * @param name String name input
      */
-    public void setName(String name) {
+    private void setName(String name) {
         if (name == null || name.equals("")) {
             throw new IllegalArgumentException("Invalid name argument given.");
         }
-        this.name = name.toLowerCase();
+        this.nameId = NAMES.intern(name.toLowerCase());
     }
 
     /**
      * setter for gender, setting the gender to either "m", "F", "f", or "M"
      * @param genderArg String name input
      */
-    public void setGender(String genderArg) {
+    private void setGender(String genderArg) {
         if (genderArg == null || (!genderArg.toLowerCase().equals("m") && !genderArg.toLowerCase().equals("f"))) {
             throw new IllegalArgumentException("Invalid gender argument given.");
         } else {
-            this.gender = genderArg.toLowerCase();
+            this.gender = (byte) Character.toLowerCase(genderArg.charAt(0));
         }
     }
 
@@ -82,7 +103,7 @@ public class Name implements Comparable<Name> {
      * setter for count; only accepts values that are positive or 0
      * @param count int count input
      */
-    public void setCount(int count) {
+    private void setCount(int count) {
         if (count <= 0) {
             throw new IllegalArgumentException("Invalid count argument given.");
         } else {
@@ -94,17 +115,18 @@ public class Name implements Comparable<Name> {
      * setter for county, setting the county to lowercase text
      * @param county String county input
      */
-    public void setCounty(String county) {
+    private void setCounty(String county) {
         if (county == null || county.equals("")) {
             throw new IllegalArgumentException("Invalid county argument given.");
         }
-        this.county = county.toLowerCase();
+        this.countyId = COUNTIES.intern(county.toLowerCase());
     }
 
     /**
      * equals method that overrides default
-     * if the name, gender, and count fields of an object are equal to this object, returns true
+     * if the name, county, and gender fields of an object are equal to this object, returns true
      * otherwise returns false
+     * The count is not part of the key, so equals is consistent with compareTo
      * @param obj the object to test
      * @return a boolean true if they are equal and false otherwise
      */
@@ -118,37 +140,44 @@ public class Name implements Comparable<Name> {
         }
         if (!(obj instanceof Name)) return false;
         Name other = (Name) obj;
-        if (other.count == this.count && other.name.equals(this.name) && other.gender.equals(this.gender)) {
+        if (other.nameId == this.nameId && other.countyId == this.countyId && other.gender == this.gender) {
             return true;
         }
         return false;
     }
 
+    /**
+     * hashCode consistent with equals
+     * @return hash of name, county, and gender
+     */
+    @Override
+    public int hashCode() {
+        return (nameId * 31 + countyId) * 31 + gender;
+    }
+
     /**
      * Compares two Name objects, overrides default.
      * key precedence is:
      * name (alphabetical)
      * county (alphabetical)
-     * count (numerical)
      * gender (alphabetical)
+     * Names that differ only in count compare as equal: a year holds one entry per name, county, and gender
      * 0 indicates an equal comparison
      * a positive int indicates that this is before o
      * a negative int indicates that o is before this
+     * Equal names and counties are detected by comparing ids; Strings are only compared when they differ
      * @param o the Name object being compared to
      * @return an int, positive (before), negative (after), or 0 (equal)
      */
     @Override
     public int compareTo(Name o) {
         if (o == null || this == null) return 0; //null case
-        if (this.equals(o)) return 0;
-        if (!o.getName().equals(getName())) {
+        if (o.nameId != nameId) {
             return getName().compareTo(o.getName());
-        } else if (!o.getCounty().equals(getCounty())) {
+        } else if (o.countyId != countyId) {
             return getCounty().compareTo(o.getCounty());
-        } else if (o.getCount() != getCount()) {
-            return getCount() - o.getCount();
-        } else if (!getGender().equals(o.getGender())) {
-            return (int) o.getGender().charAt(0) - (int) getGender().charAt(0);
+        } else if (o.gender != gender) {
+            return o.gender - gender;
         }
         return 0;
     }
@@ -0,0 +1,95 @@
+package project5;
+
+/**
+ * A query for a name within a county, where the county may be "all"
+ * Name and county are stored trimmed and in lowercase, the form used by the data
+ * NameCountyQuery objects are ordered like Name objects: by name, then county
+ * @author Joshua Donelly-Higgins
+ */
+public final class NameCountyQuery implements Comparable<NameCountyQuery> {
+    private final String name;
+    private final String county;
+
+    /**
+     * Constructs a new NameCountyQuery object
+     * @param name String name in question
+     * @param county String county in question, or "all"
+     */
+    public NameCountyQuery (String name, String county) {
+        if (name == null) throw new IllegalArgumentException("Invalid name given.");
+        if (county == null) throw new IllegalArgumentException("Invalid county given.");
+        this.name = name.trim().toLowerCase();
+        this.county = county.trim().toLowerCase();
+    }
+
+    /**
+     * getter for name
+     * @return the String name attribute
+     */
+    public String getName () {
+        return name;
+    }
+
+    /**
+     * getter for county
+     * @return the String county attribute, "all" for every county
+     */
+    public String getCounty () {
+        return county;
+    }
+
+    /**
+     * Checks whether the query is for every county
+     * @return true if county is "all"
+     */
+    public boolean isAllCounties () {
+        return county.equals("all");
+    }
+
+    /**
+     * equals method that overrides default
+     * if the name and county fields of an object are equal to this object, returns true
+     * @param obj the object to test
+     * @return a boolean true if they are equal and false otherwise
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof NameCountyQuery)) return false;
+        NameCountyQuery other = (NameCountyQuery) obj;
+        return other.name.equals(name) && other.county.equals(county);
+    }
+
+    /**
+     * hashCode consistent with equals
+     * @return hash of name and county
+     */
+    @Override
+    public int hashCode() {
+        return name.hashCode() * 31 + county.hashCode();
+    }
+
+    /**
+     * Compares two NameCountyQuery objects
+     * key precedence is:
+     * name (alphabetical)
+     * county (alphabetical)
+     * @param o the NameCountyQuery object being compared to
+     * @return an int, negative if this comes first, positive if o comes first, 0 if equal
+     */
+    @Override
+    public int compareTo(NameCountyQuery o) {
+        int comparison = name.compareTo(o.name);
+        if (comparison != 0) return comparison;
+        return county.compareTo(o.county);
+    }
+
+    /**
+     * Converts a NameCountyQuery object to a string
+     * @return "Name [name] in county [county]."
+     */
+    @Override
+    public String toString() {
+        return String.format("Name %s in county %s.", name, county);
+    }
+}
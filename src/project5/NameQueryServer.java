@@ -0,0 +1,449 @@
+package project5;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves queries over the years of a NameQueryService through HTTP, answering in JSON
+ *
+ * Endpoints (GET only, parameters in the query string):
+ * /name?name=N                         total count of a name per year
+ * /county?county=C                     total count of a county per year
+ * /fraction?name=N[&amp;county=C]         percentage of babies with a name within a county (default all) per year
+ * /top?year=Y[&amp;k=10][&amp;county=C][&amp;gender=G]  the k most popular names of a year, county and gender
+ * /similar?name=N[&amp;distance=1][&amp;county=C]  names within an edit distance (at most 3) and their summed count per year
+ * /phonetic?name=N[&amp;county=C]       names with the same Soundex key and their summed count per year
+ * /trend?name=N[&amp;window=3]           count, year-over-year change and moving average percentage of a name per year
+ * /rising?from=Y1&amp;to=Y2[&amp;k=10]       the k names whose percentage rose the most from Y1 to Y2
+ * Bad parameters are answered with status 400 and an "error" member.
+ *
+ * Each request reads one published version of the years, so its answer is consistent even while names
+ * are added. The FuzzyNameIndex behind /similar and /phonetic and the NameTrends behind /trend and /rising
+ * are built when the server is constructed, so names added after that are not reflected in them. Requests run on a virtual thread each
+ * when the JVM supports them (Java 21 and later), otherwise on a cached thread pool.
+ * The JDK server writes headers and body separately, so without TCP_NODELAY every answer on a kept-alive
+ * connection waits for the client's delayed ACK (about 40 ms). Run with -Dsun.net.httpserver.nodelay=true,
+ * or set that property before the first HttpServer of the process is created, as NYSBabyNames does.
+ * Each request is timed in Metrics under its path, and the single-year lookups of /name, /county,
+ * /fraction and /top also by year and county.
+ * @author Joshua Donelly-Higgins
+ */
+public class NameQueryServer {
+    private static final int DEFAULT_TOP = 10;
+    private static final int DEFAULT_DISTANCE = 1;
+    //larger distances match most of the vocabulary and make the BK-tree search visit nearly every name
+    private static final int MAX_DISTANCE = 3;
+    private static final int DEFAULT_WINDOW = 3;
+
+    private NameQueryService service;
+    private FuzzyNameIndex index;
+    //null if the service has no years
+    private NameTrends trends;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * Constructs a server; it does not accept requests until start is called
+     * @param service the preloaded data to serve
+     * @param address address and port to listen on; port 0 picks a free port
+     * @throws IOException if the address cannot be bound
+     */
+    public NameQueryServer(NameQueryService service, InetSocketAddress address) throws IOException {
+        this.service = service;
+        List<YearStore> years = service.getYears();
+        index = new FuzzyNameIndex(years);
+        trends = years.isEmpty() ? null : new NameTrends(years);
+        server = HttpServer.create(address, 0);
+        executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/name", handler("/name", this::name));
+        server.createContext("/county", handler("/county", this::county));
+        server.createContext("/fraction", handler("/fraction", this::fraction));
+        server.createContext("/top", handler("/top", this::top));
+        server.createContext("/similar", handler("/similar", this::similar));
+        server.createContext("/phonetic", handler("/phonetic", this::phonetic));
+        server.createContext("/trend", handler("/trend", this::trend));
+        server.createContext("/rising", handler("/rising", this::rising));
+    }
+
+    /**
+     * Starts accepting requests in the background
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, waits up to delay seconds for running requests and releases the threads
+     * @param delay maximum number of seconds to wait
+     */
+    public void stop(int delay) {
+        server.stop(delay);
+        executor.shutdown();
+    }
+
+    /**
+     * Gets the address the server listens on
+     * @return the bound address, with the actual port
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Answers /name
+     * @param parameters decoded query parameters
+     * @return JSON object with the count per year
+     */
+    private String name(HashMap<String, String> parameters) {
+        NameCountyQuery query = new NameCountyQuery(required(parameters, "name"), "all");
+        StringBuilder json = new StringBuilder("{\"name\":");
+        quote(json, query.getName()).append(",\"counts\":{");
+        List<YearStore> years = service.getYears();
+        Metrics metrics = Metrics.getInstance();
+        for (int i = 0; i < years.size(); i++) {
+            if (i > 0) json.append(',');
+            long start = System.nanoTime();
+            int count = years.get(i).getCountByName(query.getName());
+            metrics.recordLookup(years.get(i), "all", System.nanoTime() - start);
+            json.append('"').append(years.get(i).getYear()).append("\":").append(count);
+        }
+        return json.append("}}").toString();
+    }
+
+    /**
+     * Answers /county
+     * @param parameters decoded query parameters
+     * @return JSON object with the total count per year
+     */
+    private String county(HashMap<String, String> parameters) {
+        String county = required(parameters, "county").trim().toLowerCase();
+        StringBuilder json = new StringBuilder("{\"county\":");
+        quote(json, county).append(",\"counts\":{");
+        List<YearStore> years = service.getYears();
+        Metrics metrics = Metrics.getInstance();
+        for (int i = 0; i < years.size(); i++) {
+            if (i > 0) json.append(',');
+            long start = System.nanoTime();
+            int count = years.get(i).getTotalCountCounty(county);
+            metrics.recordLookup(years.get(i), county, System.nanoTime() - start);
+            json.append('"').append(years.get(i).getYear()).append("\":").append(count);
+        }
+        return json.append("}}").toString();
+    }
+
+    /**
+     * Answers /fraction
+     * @param parameters decoded query parameters
+     * @return JSON object with the percentage per year
+     */
+    private String fraction(HashMap<String, String> parameters) {
+        NameCountyQuery query = new NameCountyQuery(required(parameters, "name"), parameters.getOrDefault("county", "all"));
+        StringBuilder json = new StringBuilder("{\"name\":");
+        quote(json, query.getName()).append(",\"county\":");
+        quote(json, query.getCounty()).append(",\"percent\":{");
+        List<YearStore> years = service.getYears();
+        Metrics metrics = Metrics.getInstance();
+        for (int i = 0; i < years.size(); i++) {
+            if (i > 0) json.append(',');
+            long start = System.nanoTime();
+            double fraction = years.get(i).getFractionByNameCounty(query.getName(), query.getCounty());
+            metrics.recordLookup(years.get(i), query.getCounty(), System.nanoTime() - start);
+            json.append('"').append(years.get(i).getYear()).append("\":").append(fraction * 100);
+        }
+        return json.append("}}").toString();
+    }
+
+    /**
+     * Answers /top
+     * @param parameters decoded query parameters
+     * @return JSON object with the most popular names and their counts
+     */
+    private String top(HashMap<String, String> parameters) {
+        int year = number(required(parameters, "year"), "year");
+        int k = parameters.containsKey("k") ? number(parameters.get("k"), "k") : DEFAULT_TOP;
+        String county = parameters.getOrDefault("county", "all").trim().toLowerCase();
+        String gender = parameters.getOrDefault("gender", "all").trim().toLowerCase();
+        if (!gender.equals("all") && !gender.equals("m") && !gender.equals("f")) {
+            throw new IllegalArgumentException("Invalid gender given.");
+        }
+
+        StringBuilder json = new StringBuilder("{\"year\":").append(year).append(",\"county\":");
+        quote(json, county).append(",\"gender\":");
+        quote(json, gender).append(",\"names\":[");
+        long start = System.nanoTime();
+        ArrayList<NameTotal> totals = service.getTopNames(year, k, county, gender);
+        long nanos = System.nanoTime() - start;
+        YearStore element = service.getYear(year);
+        if (element != null) Metrics.getInstance().recordLookup(element, county, nanos);
+
+        boolean first = true;
+        for (NameTotal total : totals) {
+            if (!first) json.append(',');
+            first = false;
+            json.append("{\"name\":");
+            quote(json, total.getName()).append(",\"count\":").append(total.getCount()).append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Answers /similar
+     * @param parameters decoded query parameters
+     * @return JSON object with the matching names and their summed count per year
+     */
+    private String similar(HashMap<String, String> parameters) {
+        NameCountyQuery query = new NameCountyQuery(required(parameters, "name"), parameters.getOrDefault("county", "all"));
+        int distance = parameters.containsKey("distance") ? number(parameters.get("distance"), "distance") : DEFAULT_DISTANCE;
+        if (distance > MAX_DISTANCE) throw new IllegalArgumentException("Invalid distance given.");
+        return variants(query, index.getSimilarNames(query.getName(), distance));
+    }
+
+    /**
+     * Answers /phonetic
+     * @param parameters decoded query parameters
+     * @return JSON object with the matching names and their summed count per year
+     */
+    private String phonetic(HashMap<String, String> parameters) {
+        NameCountyQuery query = new NameCountyQuery(required(parameters, "name"), parameters.getOrDefault("county", "all"));
+        return variants(query, index.getPhoneticMatches(query.getName()));
+    }
+
+    /**
+     * Answers /trend
+     * @param parameters decoded query parameters
+     * @return JSON object with the count, change and moving average percentage per year
+     */
+    private String trend(HashMap<String, String> parameters) {
+        String name = new NameCountyQuery(required(parameters, "name"), "all").getName();
+        int window = parameters.containsKey("window") ? number(parameters.get("window"), "window") : DEFAULT_WINDOW;
+        NameTrends current = trends();
+        int first = current.getFirstYear();
+        int last = current.getLastYear();
+        if (window < 1 || window > last - first + 1) throw new IllegalArgumentException("Invalid window given.");
+        int[] counts = current.getCounts(name);
+        int[] deltas = current.getDeltas(name, first, last);
+        double[] averages = current.getMovingAverage(name, window, first, last);
+
+        StringBuilder json = new StringBuilder("{\"name\":");
+        quote(json, name).append(",\"window\":").append(window).append(",\"counts\":{");
+        for (int i = 0; i < counts.length; i++) {
+            if (i > 0) json.append(',');
+            json.append('"').append(first + i).append("\":").append(counts[i]);
+        }
+        //changes and averages are keyed by the last year they cover
+        json.append("},\"changes\":{");
+        for (int i = 0; i < deltas.length; i++) {
+            if (i > 0) json.append(',');
+            json.append('"').append(first + i + 1).append("\":").append(deltas[i]);
+        }
+        json.append("},\"average\":{");
+        for (int i = 0; i < averages.length; i++) {
+            if (i > 0) json.append(',');
+            json.append('"').append(first + i + window - 1).append("\":").append(averages[i] * 100);
+        }
+        return json.append("}}").toString();
+    }
+
+    /**
+     * Answers /rising
+     * @param parameters decoded query parameters
+     * @return JSON object with the fastest rising names and their percentages in both years
+     */
+    private String rising(HashMap<String, String> parameters) {
+        int from = number(required(parameters, "from"), "from");
+        int to = number(required(parameters, "to"), "to");
+        int k = parameters.containsKey("k") ? number(parameters.get("k"), "k") : DEFAULT_TOP;
+
+        StringBuilder json = new StringBuilder("{\"from\":").append(from).append(",\"to\":").append(to).append(",\"names\":[");
+        boolean first = true;
+        for (NameRise rise : trends().getFastestRising(from, to, k)) {
+            if (!first) json.append(',');
+            first = false;
+            json.append("{\"name\":");
+            quote(json, rise.getName()).append(",\"fromPercent\":").append(rise.getFromFraction() * 100)
+                    .append(",\"toPercent\":").append(rise.getToFraction() * 100).append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Gets the series of the served years
+     * @return the trends
+     */
+    private NameTrends trends() {
+        if (trends == null) throw new IllegalArgumentException("No years loaded.");
+        return trends;
+    }
+
+    /**
+     * Formats the variants of a name and their summed count per year of the current version
+     * @param query the name and county asked for
+     * @param variants the matching names
+     * @return JSON object
+     */
+    private String variants(NameCountyQuery query, List<String> variants) {
+        StringBuilder json = new StringBuilder("{\"name\":");
+        quote(json, query.getName()).append(",\"county\":");
+        quote(json, query.getCounty()).append(",\"variants\":[");
+        for (int i = 0; i < variants.size(); i++) {
+            if (i > 0) json.append(',');
+            quote(json, variants.get(i));
+        }
+        json.append("],\"counts\":{");
+        List<YearStore> years = service.getYears();
+        int[] counts = FuzzyNameIndex.getCounts(variants, query.getCounty(), years);
+        for (int i = 0; i < years.size(); i++) {
+            if (i > 0) json.append(',');
+            json.append('"').append(years.get(i).getYear()).append("\":").append(counts[i]);
+        }
+        return json.append("}}").toString();
+    }
+
+    /**
+     * Wraps an endpoint into a handler that parses the query string and writes the answer
+     * The time taken to compute each answer is recorded in Metrics under the path of the endpoint
+     * @param path path of the endpoint
+     * @param endpoint computes the JSON answer from the query parameters,
+     *                 throwing IllegalArgumentException for bad parameters
+     * @return the handler
+     */
+    private static HttpHandler handler(String path, Endpoint endpoint) {
+        return exchange -> {
+            try {
+                if (!exchange.getRequestMethod().equals("GET")) {
+                    respond(exchange, 405, "{\"error\":\"Only GET is supported.\"}");
+                    return;
+                }
+                String body;
+                long start = System.nanoTime();
+                try {
+                    body = endpoint.answer(parameters(exchange.getRequestURI().getRawQuery()));
+                    Metrics.getInstance().recordQuery(path, System.nanoTime() - start);
+                } catch (IllegalArgumentException ex) {
+                    respond(exchange, 400, quote(new StringBuilder("{\"error\":"), ex.getMessage()).append('}').toString());
+                    return;
+                }
+                respond(exchange, 200, body);
+            } finally {
+                exchange.close();
+            }
+        };
+    }
+
+    /**
+     * Sends a JSON answer
+     * @param exchange the request
+     * @param status HTTP status code
+     * @param body JSON text
+     * @throws IOException if the answer cannot be sent
+     */
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Decodes a query string
+     * @param query raw query string, may be null
+     * @return parameter values by name; the first value wins if a name is repeated
+     */
+    private static HashMap<String, String> parameters(String query) {
+        HashMap<String, String> parameters = new HashMap<>();
+        if (query == null) return parameters;
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+            String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            parameters.putIfAbsent(key, value);
+        }
+        return parameters;
+    }
+
+    /**
+     * Gets a parameter that must be given
+     * @param parameters decoded query parameters
+     * @param key name of the parameter
+     * @return the value, not blank
+     */
+    private static String required(HashMap<String, String> parameters, String key) {
+        String value = parameters.get(key);
+        if (value == null || value.trim().isEmpty()) throw new IllegalArgumentException("Missing parameter " + key + ".");
+        return value;
+    }
+
+    /**
+     * Parses a non-negative int parameter
+     * @param value the value
+     * @param key name of the parameter, for the error message
+     * @return the number
+     */
+    private static int number(String value, String key) {
+        try {
+            int number = Integer.parseInt(value.trim());
+            if (number >= 0) return number;
+        } catch (NumberFormatException ex) {
+            //reported below
+        }
+        throw new IllegalArgumentException("Invalid " + key + " given.");
+    }
+
+    /**
+     * Appends a JSON string literal, escaping quotes, backslashes and control characters
+     * @param json where to append
+     * @param value the String
+     * @return json
+     */
+    private static StringBuilder quote(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') json.append('\\').append(c);
+            else if (c < 0x20) json.append(String.format("\\u%04x", (int) c));
+            else json.append(c);
+        }
+        return json.append('"');
+    }
+
+    /**
+     * Creates the executor that runs requests: one virtual thread per request if the JVM has them,
+     * a cached thread pool otherwise
+     * Virtual threads are looked up by reflection so the code still compiles and runs on Java 17
+     * @return the executor
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Computes the answer of an endpoint
+     */
+    private interface Endpoint {
+        /**
+         * Computes the answer
+         * @param parameters decoded query parameters
+         * @return JSON text
+         */
+        String answer(HashMap<String, String> parameters);
+    }
+}
@@ -0,0 +1,136 @@
+package project5;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Thread-safe query layer over a collection of years
+ *
+ * Readers never lock: they read an immutable ColumnarYearNames copy of each year from an array
+ * that is published through a volatile field. Writers add names to private YearNames trees one at
+ * a time (writes are serialized), then publish a new array in which only the changed year is
+ * replaced by a fresh copy. Readers that already hold the previous array keep a consistent view.
+ *
+ * A small batch is inserted into the tree in O(log n) per name, a large one rebuilds the tree in one pass.
+ * Publishing then copies the changed year in time linear in its size, so names should be added in batches.
+ * @author Joshua Donelly-Higgins
+ */
+public class NameQueryService {
+    //batches of more than 1/BULK_ADD_RATIO of the size of a year rebuild it instead of inserting each name
+    private static final int BULK_ADD_RATIO = 16;
+
+    //writable trees by offset of the year from YearNames.MIN_YEAR, only used while holding the lock on this
+    private YearNames[] trees;
+    //published read-only years, sorted by year; never modified once published
+    private volatile ColumnarYearNames[] published;
+
+    /**
+     * Constructs a service over the given years
+     * The service takes ownership of the YearNames objects; they must not be used elsewhere afterwards
+     * @param years the years to serve
+     */
+    public NameQueryService(Collection<YearNames> years) {
+        trees = new YearNames[YearNames.MAX_YEAR - YearNames.MIN_YEAR + 1];
+        for (YearNames element : years) trees[element.getYear() - YearNames.MIN_YEAR] = element;
+        publish();
+    }
+
+    /**
+     * Adds names to a year, creating the year if necessary, and publishes the result
+     * Readers are not blocked; they see either none or all of the names
+     * As in CSVLoader, the newest row wins: a name with the same name, county, and gender as a stored entry
+     * replaces its count, and of several such names in one call the last one is kept
+     * @param year the year to add to
+     * @param names the Name objects to add, oldest first
+     */
+    public synchronized void addAll(int year, Collection<Name> names) {
+        if (year < YearNames.MIN_YEAR || year > YearNames.MAX_YEAR) throw new IllegalArgumentException("Year was not valid.");
+        YearNames element = trees[year - YearNames.MIN_YEAR];
+        if (element == null) {
+            element = new YearNames(year);
+            trees[year - YearNames.MIN_YEAR] = element;
+        }
+        //few names are inserted one at a time in O(log n) each; many rebuild the tree once, as in CSVLoader.append
+        if (names.size() > element.size() / BULK_ADD_RATIO) {
+            element.addOrReplaceAll(names);
+        } else {
+            for (Name name : names) element.addOrReplace(name);
+        }
+
+        //replace only the changed year in a copy of the published array
+        ColumnarYearNames[] current = published;
+        ColumnarYearNames copy = new ColumnarYearNames(element);
+        int index = Arrays.binarySearch(current, copy);
+        ColumnarYearNames[] next;
+        if (index >= 0) {
+            next = current.clone();
+            next[index] = copy;
+        } else {
+            index = -index - 1;
+            next = new ColumnarYearNames[current.length + 1];
+            System.arraycopy(current, 0, next, 0, index);
+            next[index] = copy;
+            System.arraycopy(current, index, next, index + 1, current.length - index);
+        }
+        published = next;
+    }
+
+    /**
+     * Adds a single name to a year and publishes the result
+     * @param year the year to add to
+     * @param name the Name object to add
+     */
+    public void add(int year, Name name) {
+        addAll(year, Collections.singletonList(name));
+    }
+
+    /**
+     * Gets a consistent view of all years
+     * Queries across years should go through one such list so they all see the same version
+     * @return unmodifiable list of years sorted by year
+     */
+    public List<YearStore> getYears() {
+        return Collections.unmodifiableList(Arrays.asList((YearStore[]) published));
+    }
+
+    /**
+     * Gets a single year
+     * @param year the year
+     * @return the current version of that year, or null if it has no names
+     */
+    public YearStore getYear(int year) {
+        for (ColumnarYearNames element : published) {
+            if (element.getYear() == year) return element;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the k most popular names of a year within a county and gender
+     * @param year the year
+     * @param k number of names
+     * @param county String input county, or "all"
+     * @param gender String input gender "m" or "f", or "all"
+     * @return names and their total counts, most popular first; empty if the year has no names
+     */
+    public ArrayList<NameTotal> getTopNames(int year, int k, String county, String gender) {
+        for (ColumnarYearNames element : published) {
+            if (element.getYear() == year) return element.getTopNames(k, county, gender);
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Publishes a read-only copy of every year
+     */
+    private synchronized void publish() {
+        ArrayList<ColumnarYearNames> copies = new ArrayList<>();
+        for (YearNames element : trees) {
+            if (element != null) copies.add(new ColumnarYearNames(element));
+        }
+        published = copies.toArray(new ColumnarYearNames[0]);
+    }
+}
@@ -0,0 +1,105 @@
+package project5;
+
+/**
+ * The change in popularity of a name between two years, as a fraction of all babies born in each year
+ * NameRise objects are ordered by change: largest rise first, then alphabetically by name
+ * @author Joshua Donelly-Higgins
+ */
+public class NameRise implements Comparable<NameRise> {
+
+    private String name;
+    private double fromFraction;
+    private double toFraction;
+
+    /**
+     * Constructs a new NameRise object
+     * @param name String name in question
+     * @param fromFraction fraction of babies with that name in the first year
+     * @param toFraction fraction of babies with that name in the second year
+     */
+    public NameRise (String name, double fromFraction, double toFraction) {
+        this.name = name;
+        this.fromFraction = fromFraction;
+        this.toFraction = toFraction;
+    }
+
+    /**
+     * getter for name
+     * @return the String name attribute
+     */
+    public String getName () {
+        return name;
+    }
+
+    /**
+     * getter for fromFraction
+     * @return fraction from 0 to 1 in the first year
+     */
+    public double getFromFraction () {
+        return fromFraction;
+    }
+
+    /**
+     * getter for toFraction
+     * @return fraction from 0 to 1 in the second year
+     */
+    public double getToFraction () {
+        return toFraction;
+    }
+
+    /**
+     * Gets the change in fraction
+     * @return toFraction minus fromFraction, negative for a falling name
+     */
+    public double getChange () {
+        return toFraction - fromFraction;
+    }
+
+    /**
+     * equals method that overrides default
+     * if the name and fraction fields of an object are equal to this object, returns true
+     * @param obj the object to test
+     * @return a boolean true if they are equal and false otherwise
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof NameRise)) return false;
+        NameRise other = (NameRise) obj;
+        return other.name.equals(name) && Double.compare(other.fromFraction, fromFraction) == 0
+                && Double.compare(other.toFraction, toFraction) == 0;
+    }
+
+    /**
+     * hashCode consistent with equals
+     * @return hash of name and fractions
+     */
+    @Override
+    public int hashCode() {
+        return (name.hashCode() * 31 + Double.hashCode(fromFraction)) * 31 + Double.hashCode(toFraction);
+    }
+
+    /**
+     * Compares two NameRise objects by change
+     * key precedence is:
+     * change (descending)
+     * name (alphabetical)
+     * @param o the NameRise object being compared to
+     * @return an int, negative if this rose more, positive if o rose more, 0 if equal
+     */
+    @Override
+    public int compareTo(NameRise o) {
+        int comparison = Double.compare(o.getChange(), getChange());
+        if (comparison != 0) return comparison;
+        return name.compareTo(o.name);
+    }
+
+    /**
+     * Converts a NameRise object to a string
+     * @return "Name [name] changed from [from]% to [to]%."
+     */
+    @Override
+    public String toString() {
+        return String.format("Name %s changed from %.4f%% to %.4f%%.", name, fromFraction * 100, toFraction * 100);
+    }
+}
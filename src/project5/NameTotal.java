@@ -0,0 +1,84 @@
+package project5;
+
+/**
+ * The total count of a name, summed over its entries
+ * NameTotal objects are ordered by popularity: higher counts first, then alphabetically by name
+ * @author Joshua Donelly-Higgins
+ */
+public class NameTotal implements Comparable<NameTotal> {
+
+    private String name;
+    private int count;
+
+    /**
+     * Constructs a new NameTotal object
+     * @param name String name in question
+     * @param count int total count for that name
+     */
+    public NameTotal (String name, int count) {
+        this.name = name;
+        this.count = count;
+    }
+
+    /**
+     * getter for name
+     * @return the String name attribute
+     */
+    public String getName () {
+        return name;
+    }
+
+    /**
+     * getter for count
+     * @return the int count attribute
+     */
+    public int getCount () {
+        return count;
+    }
+
+    /**
+     * equals method that overrides default
+     * if the name and count fields of an object are equal to this object, returns true
+     * @param obj the object to test
+     * @return a boolean true if they are equal and false otherwise
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof NameTotal)) return false;
+        NameTotal other = (NameTotal) obj;
+        return other.count == count && other.name.equals(name);
+    }
+
+    /**
+     * hashCode consistent with equals
+     * @return hash of name and count
+     */
+    @Override
+    public int hashCode() {
+        return name.hashCode() * 31 + count;
+    }
+
+    /**
+     * Compares two NameTotal objects by popularity
+     * key precedence is:
+     * count (descending)
+     * name (alphabetical)
+     * @param o the NameTotal object being compared to
+     * @return an int, negative if this is more popular, positive if o is more popular, 0 if equal
+     */
+    @Override
+    public int compareTo(NameTotal o) {
+        if (o.count != count) return Integer.compare(o.count, count);
+        return name.compareTo(o.name);
+    }
+
+    /**
+     * Converts a NameTotal object to a string
+     * @return "Name [name] has total count [count]."
+     */
+    @Override
+    public String toString() {
+        return String.format("Name %s has total count %d.", name, count);
+    }
+}
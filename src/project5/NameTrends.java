@@ -0,0 +1,238 @@
+package project5;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.PriorityQueue;
+
+/**
+ * Yearly series of every name, summed over counties and genders
+ * The counts and fractions of each name are stored in one primitive array per name, indexed by
+ * year minus the first year, so a series is read without searching any tree. Years in the range
+ * without data have count 0 and fraction 0.
+ * Built once from the years; later changes to them are not reflected.
+ * @author Joshua Donelly-Higgins
+ */
+public class NameTrends {
+    private int firstYear;
+    private int lastYear;
+
+    //total count per year
+    private int[] totals;
+    //row of each name in counts and fractions
+    private HashMap<String, Integer> rows;
+    private String[] names;
+    private int[][] counts;
+    private double[][] fractions;
+
+    /**
+     * Builds the series of every name from one pass over each year
+     * Trees are walked once; other kinds of years are asked for the count of each of their distinct names
+     * @param years the years to include, at least one, of any YearStore kind
+     */
+    public NameTrends(Collection<? extends YearStore> years) {
+        if (years == null || years.isEmpty()) throw new IllegalArgumentException("Invalid years given.");
+        firstYear = YearNames.MAX_YEAR;
+        lastYear = YearNames.MIN_YEAR;
+        for (YearStore element : years) {
+            firstYear = Math.min(firstYear, element.getYear());
+            lastYear = Math.max(lastYear, element.getYear());
+        }
+        int length = lastYear - firstYear + 1;
+        totals = new int[length];
+        rows = new HashMap<>();
+        ArrayList<String> nameList = new ArrayList<>();
+        ArrayList<int[]> countList = new ArrayList<>();
+
+        for (YearStore element : years) {
+            int index = element.getYear() - firstYear;
+            totals[index] += element.getTotalCount();
+            if (element instanceof YearNames) {
+                ((YearNames) element).forEach(name -> row(name.getName(), nameList, countList, length)[index] += name.getCount());
+            } else {
+                element.forEachDistinctName(name -> row(name, nameList, countList, length)[index] += element.getCountByName(name));
+            }
+        }
+
+        names = nameList.toArray(new String[0]);
+        counts = countList.toArray(new int[0][]);
+        fractions = new double[counts.length][length];
+        for (int row = 0; row < counts.length; row++) {
+            for (int i = 0; i < length; i++) {
+                if (totals[i] > 0) fractions[row][i] = (double) counts[row][i] / totals[i];
+            }
+        }
+    }
+
+    /**
+     * Getter for firstYear
+     * @return the first year of the series
+     */
+    public int getFirstYear() {
+        return firstYear;
+    }
+
+    /**
+     * Getter for lastYear
+     * @return the last year of the series
+     */
+    public int getLastYear() {
+        return lastYear;
+    }
+
+    /**
+     * Gets the number of distinct names
+     * @return number of names with a series
+     */
+    public int getNumberOfNames() {
+        return names.length;
+    }
+
+    /**
+     * Gets the yearly counts of a name over all years
+     * @param name String input name
+     * @return count per year from getFirstYear() to getLastYear(); all 0 if the name doesn't exist
+     */
+    public int[] getCounts(String name) {
+        return getCounts(name, firstYear, lastYear);
+    }
+
+    /**
+     * Gets the yearly counts of a name over a range of years
+     * @param name String input name
+     * @param fromYear first year of the range
+     * @param toYear last year of the range, inclusive
+     * @return count per year of the range; all 0 if the name doesn't exist
+     */
+    public int[] getCounts(String name, int fromYear, int toYear) {
+        checkRange(fromYear, toYear);
+        int[] slice = new int[toYear - fromYear + 1];
+        Integer row = rows.get(name);
+        if (row != null) System.arraycopy(counts[row], fromYear - firstYear, slice, 0, slice.length);
+        return slice;
+    }
+
+    /**
+     * Gets the yearly fractions of a name over all years
+     * @param name String input name
+     * @return fraction from 0 to 1 per year from getFirstYear() to getLastYear(); all 0 if the name doesn't exist
+     */
+    public double[] getFractions(String name) {
+        return getFractions(name, firstYear, lastYear);
+    }
+
+    /**
+     * Gets the yearly fractions of a name over a range of years
+     * @param name String input name
+     * @param fromYear first year of the range
+     * @param toYear last year of the range, inclusive
+     * @return fraction from 0 to 1 per year of the range; all 0 if the name doesn't exist
+     */
+    public double[] getFractions(String name, int fromYear, int toYear) {
+        checkRange(fromYear, toYear);
+        double[] slice = new double[toYear - fromYear + 1];
+        Integer row = rows.get(name);
+        if (row != null) System.arraycopy(fractions[row], fromYear - firstYear, slice, 0, slice.length);
+        return slice;
+    }
+
+    /**
+     * Gets the year-over-year change of the count of a name over a range of years
+     * @param name String input name
+     * @param fromYear first year of the range
+     * @param toYear last year of the range, inclusive
+     * @return count of each year after fromYear minus the count of the year before; empty for a single year
+     */
+    public int[] getDeltas(String name, int fromYear, int toYear) {
+        int[] series = getCounts(name, fromYear, toYear);
+        int[] deltas = new int[series.length - 1];
+        for (int i = 0; i < deltas.length; i++) deltas[i] = series[i + 1] - series[i];
+        return deltas;
+    }
+
+    /**
+     * Gets the trailing moving average of the fraction of a name over a range of years
+     * @param name String input name
+     * @param window number of years averaged, at least 1
+     * @param fromYear first year of the range
+     * @param toYear last year of the range, inclusive
+     * @return average of the window of years ending at each year from fromYear + window - 1 to toYear;
+     *         empty if the range is shorter than the window
+     */
+    public double[] getMovingAverage(String name, int window, int fromYear, int toYear) {
+        if (window < 1) throw new IllegalArgumentException("Invalid window given.");
+        double[] series = getFractions(name, fromYear, toYear);
+        double[] averages = new double[Math.max(0, series.length - window + 1)];
+        double sum = 0;
+        for (int i = 0; i < series.length; i++) {
+            sum += series[i];
+            if (i >= window) sum -= series[i - window];
+            if (i >= window - 1) averages[i - window + 1] = sum / window;
+        }
+        return averages;
+    }
+
+    /**
+     * Finds the names whose fraction rose the most from one year to another
+     * All names are compared in one pass, keeping the best k in a bounded heap
+     * @param fromYear the earlier year
+     * @param toYear the later year
+     * @param k number of names
+     * @return at most k names, largest rise first
+     */
+    public ArrayList<NameRise> getFastestRising(int fromYear, int toYear, int k) {
+        checkRange(fromYear, toYear);
+        if (k < 0) throw new IllegalArgumentException("Invalid number of names given.");
+        int from = fromYear - firstYear;
+        int to = toYear - firstYear;
+
+        //the head of the heap is the smallest rise kept so far
+        PriorityQueue<NameRise> best = new PriorityQueue<>(Math.max(1, k), Collections.reverseOrder());
+        for (int row = 0; row < names.length && k > 0; row++) {
+            double change = fractions[row][to] - fractions[row][from];
+            if (best.size() == k && change < best.peek().getChange()) continue;
+            NameRise rise = new NameRise(names[row], fractions[row][from], fractions[row][to]);
+            if (best.size() < k) {
+                best.add(rise);
+            } else if (rise.compareTo(best.peek()) < 0) {
+                best.poll();
+                best.add(rise);
+            }
+        }
+
+        ArrayList<NameRise> result = new ArrayList<>(best);
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * Gets the counts of a name while building, adding a row for a new name
+     * @param name String name
+     * @param nameList names by row
+     * @param countList counts by row
+     * @param length number of years of the series
+     * @return the counts of the name
+     */
+    private int[] row(String name, ArrayList<String> nameList, ArrayList<int[]> countList, int length) {
+        Integer row = rows.get(name);
+        if (row == null) {
+            row = nameList.size();
+            rows.put(name, row);
+            nameList.add(name);
+            countList.add(new int[length]);
+        }
+        return countList.get(row);
+    }
+
+    /**
+     * Checks that a range of years is within the series
+     * @param fromYear first year of the range
+     * @param toYear last year of the range, inclusive
+     */
+    private void checkRange(int fromYear, int toYear) {
+        if (fromYear < firstYear || toYear > lastYear || fromYear > toYear) {
+            throw new IllegalArgumentException("Invalid year range given.");
+        }
+    }
+}
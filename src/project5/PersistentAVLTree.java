@@ -0,0 +1,258 @@
+package project5;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Immutable AVL tree: add and remove return a new tree and leave this one unchanged
+ * Only the nodes on the path to the change are copied; all other subtrees are shared
+ * between the old and the new tree, so each version costs O(log n) new nodes
+ * Trees can be read by any number of threads without locking
+ * @author Joshua Donelly-Higgins
+ */
+public final class PersistentAVLTree<T extends Comparable<T>> {
+    @SuppressWarnings("rawtypes")
+    private static final PersistentAVLTree EMPTY = new PersistentAVLTree<>(null);
+
+    final Node<T> root;
+
+    /**
+     * Constructs a tree around a root node
+     * @param root root of the tree, null for an empty tree
+     */
+    private PersistentAVLTree(Node<T> root) {
+        this.root = root;
+    }
+
+    /**
+     * Gets the empty tree
+     * @return a tree without items
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Comparable<T>> PersistentAVLTree<T> empty() {
+        return (PersistentAVLTree<T>) EMPTY;
+    }
+
+    /**
+     * Builds a perfectly balanced tree from sorted items in O(n)
+     * @param sorted items in order, without duplicates
+     * @return the new tree
+     */
+    public static <T extends Comparable<T>> PersistentAVLTree<T> fromSorted(List<T> sorted) {
+        return new PersistentAVLTree<>(build(sorted, 0, sorted.size() - 1));
+    }
+
+    /**
+     * Returns a tree that also contains the item
+     * @param item item to insert
+     * @return the new tree, or this tree if an equal item is already stored or item is null
+     */
+    public PersistentAVLTree<T> add(T item) {
+        if (item == null) return this;
+        Node<T> newRoot = insert(root, item);
+        return newRoot == root ? this : new PersistentAVLTree<>(newRoot);
+    }
+
+    /**
+     * Returns a tree without the item
+     * @param target item to remove
+     * @return the new tree, or this tree if no equal item is stored or target is null
+     */
+    public PersistentAVLTree<T> remove(T target) {
+        if (target == null) return this;
+        Node<T> newRoot = delete(root, target);
+        return newRoot == root ? this : new PersistentAVLTree<>(newRoot);
+    }
+
+    /**
+     * Returns a tree in which the stored item equal to the given one is replaced by it
+     * @param item the replacement item
+     * @return the new tree, or this tree if no equal item is stored or item is null
+     */
+    public PersistentAVLTree<T> replace(T item) {
+        if (item == null) return this;
+        Node<T> newRoot = substitute(root, item);
+        return newRoot == root ? this : new PersistentAVLTree<>(newRoot);
+    }
+
+    /**
+     * Determines if an item equal to the given one is stored in this tree
+     * @param target the item to look for
+     * @return true if an equal item is found, false otherwise
+     */
+    public boolean contains(T target) {
+        Node<T> node = root;
+        while (node != null) {
+            int comparison = target.compareTo(node.data);
+            if (comparison == 0) return true;
+            node = comparison < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    /**
+     * Determines the number of items stored in this tree
+     * @return number of items
+     */
+    public int size() {
+        return root == null ? 0 : root.size;
+    }
+
+    /**
+     * Performs an action on every item of the tree, in order
+     * @param action action to perform
+     */
+    public void forEach(Consumer<? super T> action) {
+        forEach(root, action);
+    }
+
+    /**
+     * Recursive implementation of forEach
+     * @param node root of the subtree
+     * @param action action to perform
+     */
+    private static <T extends Comparable<T>> void forEach(Node<T> node, Consumer<? super T> action) {
+        if (node == null) return;
+        forEach(node.left, action);
+        action.accept(node.data);
+        forEach(node.right, action);
+    }
+
+    /**
+     * Inserts an item into a subtree, copying the path to it
+     * @param node root of the subtree
+     * @param item item to insert
+     * @return root of the new subtree, or node itself if an equal item is already stored
+     */
+    private static <T extends Comparable<T>> Node<T> insert(Node<T> node, T item) {
+        if (node == null) return new Node<>(item, null, null);
+        int comparison = item.compareTo(node.data);
+        if (comparison < 0) {
+            Node<T> left = insert(node.left, item);
+            return left == node.left ? node : balance(node.data, left, node.right);
+        } else if (comparison > 0) {
+            Node<T> right = insert(node.right, item);
+            return right == node.right ? node : balance(node.data, node.left, right);
+        }
+        return node; //duplicate
+    }
+
+    /**
+     * Removes an item from a subtree, copying the path to it
+     * @param node root of the subtree
+     * @param target item to remove
+     * @return root of the new subtree, or node itself if no equal item is stored
+     */
+    private static <T extends Comparable<T>> Node<T> delete(Node<T> node, T target) {
+        if (node == null) return null;
+        int comparison = target.compareTo(node.data);
+        if (comparison < 0) {
+            Node<T> left = delete(node.left, target);
+            return left == node.left ? node : balance(node.data, left, node.right);
+        } else if (comparison > 0) {
+            Node<T> right = delete(node.right, target);
+            return right == node.right ? node : balance(node.data, node.left, right);
+        }
+
+        if (node.left == null) return node.right;
+        if (node.right == null) return node.left;
+        //replace by the in-order successor
+        Node<T> successor = node.right;
+        while (successor.left != null) successor = successor.left;
+        return balance(successor.data, node.left, delete(node.right, successor.data));
+    }
+
+    /**
+     * Replaces the item equal to the given one in a subtree, copying the path to it
+     * @param node root of the subtree
+     * @param item the replacement item
+     * @return root of the new subtree, or node itself if no equal item is stored
+     */
+    private static <T extends Comparable<T>> Node<T> substitute(Node<T> node, T item) {
+        if (node == null) return null;
+        int comparison = item.compareTo(node.data);
+        if (comparison < 0) {
+            Node<T> left = substitute(node.left, item);
+            return left == node.left ? node : new Node<>(node.data, left, node.right);
+        } else if (comparison > 0) {
+            Node<T> right = substitute(node.right, item);
+            return right == node.right ? node : new Node<>(node.data, node.left, right);
+        }
+        return new Node<>(item, node.left, node.right);
+    }
+
+    /**
+     * Creates a node from its parts, rotating if the subtrees differ in height by more than one
+     * @param data item of the node
+     * @param left left subtree
+     * @param right right subtree
+     * @return root of the balanced subtree
+     */
+    private static <T extends Comparable<T>> Node<T> balance(T data, Node<T> left, Node<T> right) {
+        int leftHeight = height(left);
+        int rightHeight = height(right);
+        if (leftHeight > rightHeight + 1) {
+            if (height(left.left) >= height(left.right)) { //left, left: right rotation
+                return new Node<>(left.data, left.left, new Node<>(data, left.right, right));
+            }
+            Node<T> middle = left.right; //left, right: left rotation then right rotation
+            return new Node<>(middle.data, new Node<>(left.data, left.left, middle.left), new Node<>(data, middle.right, right));
+        }
+        if (rightHeight > leftHeight + 1) {
+            if (height(right.right) >= height(right.left)) { //right, right: left rotation
+                return new Node<>(right.data, new Node<>(data, left, right.left), right.right);
+            }
+            Node<T> middle = right.left; //right, left: right rotation then left rotation
+            return new Node<>(middle.data, new Node<>(data, left, middle.left), new Node<>(right.data, middle.right, right.right));
+        }
+        return new Node<>(data, left, right);
+    }
+
+    /**
+     * Builds a perfectly balanced subtree from a range of a sorted list
+     * @param sorted sorted items without duplicates
+     * @param low index of the first item of the range
+     * @param high index of the last item of the range
+     * @return root of the subtree, null for an empty range
+     */
+    private static <T extends Comparable<T>> Node<T> build(List<T> sorted, int low, int high) {
+        if (low > high) return null;
+        int middle = (low + high) >>> 1;
+        return new Node<>(sorted.get(middle), build(sorted, low, middle - 1), build(sorted, middle + 1, high));
+    }
+
+    /**
+     * Gets height for a node, error-checking for null values
+     * @param node node
+     * @return height
+     */
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    /**
+     * Immutable node of a PersistentAVLTree
+     * @param <T> a reference type that implements Comparable<T> interface
+     */
+    static final class Node<T extends Comparable<T>> {
+        final T data;
+        final Node<T> left;
+        final Node<T> right;
+        final int height;
+        final int size;     //number of nodes in this subtree
+
+        /**
+         * Constructs a node, computing its height and size from its subtrees
+         * @param data item stored in the node
+         * @param left left subtree
+         * @param right right subtree
+         */
+        Node(T data, Node<T> left, Node<T> right) {
+            this.data = data;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = (left == null ? 0 : left.size) + (right == null ? 0 : right.size) + 1;
+        }
+    }
+}
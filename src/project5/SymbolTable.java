@@ -0,0 +1,76 @@
+package project5;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A dictionary that assigns dense int ids to Strings, starting at 0
+ * Ids are assigned in order of first appearance and never change
+ * Safe for use by several threads; looking up existing Strings does not lock
+ * @author Joshua Donelly-Higgins
+ */
+public class SymbolTable {
+    private ConcurrentHashMap<String, Integer> ids;
+    //Strings by id; replaced by a larger copy when full, so readers never see a partly filled entry
+    private volatile String[] symbols;
+    private int size;
+
+    /**
+     * Constructs an empty SymbolTable
+     */
+    public SymbolTable() {
+        ids = new ConcurrentHashMap<>();
+        symbols = new String[16];
+        size = 0;
+    }
+
+    /**
+     * Gets the id of a String, assigning the next free id if it is not in the table yet
+     * @param symbol String to look up
+     * @return id of the String
+     */
+    public int intern(String symbol) {
+        Integer id = ids.get(symbol);
+        if (id != null) return id;
+
+        synchronized (this) {
+            id = ids.get(symbol);
+            if (id != null) return id;
+
+            String[] current = symbols;
+            if (size == current.length) current = Arrays.copyOf(current, size * 2);
+            current[size] = symbol;
+            symbols = current; //publish the String before its id
+            ids.put(symbol, size);
+            return size++;
+        }
+    }
+
+    /**
+     * Gets the id of a String without adding it
+     * @param symbol String to look up
+     * @return id of the String, or -1 if it is not in the table
+     */
+    public int getId(String symbol) {
+        Integer id = ids.get(symbol);
+        if (id == null) return -1;
+        return id;
+    }
+
+    /**
+     * Gets the String for an id
+     * @param id id to look up
+     * @return the String with that id
+     */
+    public String getSymbol(int id) {
+        return symbols[id];
+    }
+
+    /**
+     * Getter for the number of Strings in the table
+     * @return size
+     */
+    public synchronized int size() {
+        return size;
+    }
+}
@@ -1,14 +1,32 @@
 package project5;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.function.Consumer;
 
 /**
  * An extension of AVLTree that stores Name objects for a given year
  * @author Joshua Donelly-Higgins
  */
-public class YearNames extends AVLTree<Name> implements Comparable<YearNames> {
+public class YearNames extends AVLTree<Name> implements Comparable<YearNames>, YearStore {
+    //range of valid years, inclusive
+    public static final int MIN_YEAR = 1900;
+    public static final int MAX_YEAR = 2018;
+
     private int year;
     private int totalCount;
+    private CountyIndex countyIndex;
+    private AggregateTables aggregates;
+    private Leaderboards leaderboards;
+    //number of changes made so far, increased by every add and remove
+    private long version;
+
+    //persistent copy of the names and county totals for snapshots, null until the first snapshot
+    private PersistentAVLTree<Name> history;
+    private HashMap<String, Integer> historyCountyTotals;
+    //true while historyCountyTotals is held by a snapshot and must be copied before it is changed
+    private boolean countyTotalsShared;
 
     /**
      * Constructor for a YearNames object
@@ -17,6 +35,8 @@ public class YearNames extends AVLTree<Name> implements Comparable<YearNames> {
     public YearNames(int year) {
         setYear(year);
         setTotalCount(0);
+        countyIndex = new CountyIndex();
+        leaderboards = new Leaderboards();
     }
 
     /**
@@ -25,7 +45,7 @@ public class YearNames extends AVLTree<Name> implements Comparable<YearNames> {
      * @param year the input year
      */
     public void setYear(int year) {
-        if (1899 < year && year < 2019) {
+        if (MIN_YEAR <= year && year <= MAX_YEAR) {
             this.year = year;
         } else {
             throw new IllegalArgumentException("Year was not valid.");
@@ -58,12 +78,269 @@ public class YearNames extends AVLTree<Name> implements Comparable<YearNames> {
 
     /**
      * Adds a name to the list and updates the totalcount
-     * Will throw an IllegalArgumentException if the name already exists
+     * If an entry with the same name, county, and gender already exists, nothing changes
      * @param name the Name object to be added
+     * @return true if the name was added, false if it is null or a duplicate
      */
-    public void add(Name name) {
-        super.add(name);
+    @Override
+    public boolean add(Name name) {
+        if (!super.add(name)) return false;
         totalCount += name.getCount();
+        countyIndex.add(name);
+        leaderboards.addCount(name, name.getCount());
+        if (history != null) {
+            history = history.add(name);
+            addCountyTotal(name.getCounty(), name.getCount());
+        }
+        version++;
+        aggregates = null;
+        return true;
+    }
+
+    /**
+     * Adds a name to the list, or adds its count to the existing entry with the same name, county, and gender
+     * Merging replaces the entry in place without rebalancing the tree, and updates the totalcount,
+     * the county index and the leaderboards by the added count
+     * @param name the Name object to be added
+     * @return true if a new entry was created, false if the name was merged or is null
+     */
+    @Override
+    public boolean addOrMerge(Name name) {
+        if (name == null) return false;
+        Name stored = find(name);
+        if (stored == null) return add(name);
+        replaceStored(stored, merge(stored, name));
+        return false;
+    }
+
+    /**
+     * Adds a name to the list, or replaces the count of the existing entry with the same name, county, and gender
+     * Used for corrected rows: like addOrMerge, the entry is replaced in place without rebalancing the tree
+     * @param name the Name object to be added
+     * @return true if a new entry was created, false if an entry was replaced or the name is null
+     */
+    public boolean addOrReplace(Name name) {
+        if (name == null) return false;
+        Name stored = find(name);
+        if (stored == null) return add(name);
+        replaceStored(stored, name);
+        return false;
+    }
+
+    /**
+     * Replaces a stored entry by an equal one with another count, and updates the totalcount,
+     * the county index and the leaderboards by the difference
+     * @param stored the entry in the tree
+     * @param updated the entry to store instead
+     */
+    private void replaceStored(Name stored, Name updated) {
+        int delta = updated.getCount() - stored.getCount();
+        replace(updated);
+        totalCount += delta;
+        countyIndex.remove(stored);
+        countyIndex.add(updated);
+        leaderboards.addCount(updated, delta);
+        if (history != null) {
+            history = history.replace(updated);
+            addCountyTotal(updated.getCounty(), delta);
+        }
+        version++;
+        aggregates = null;
+    }
+
+    /**
+     * Combines two entries with the same name, county, and gender by adding their counts
+     * @param stored the entry in the tree
+     * @param name the entry being added
+     * @return a new Name object with the total count
+     */
+    @Override
+    protected Name merge(Name stored, Name name) {
+        return new Name(stored.getName(), stored.getGender(), stored.getCount() + name.getCount(), stored.getCounty());
+    }
+
+    /**
+     * Adds many names at once using a bulk build of the tree, and updates the totalcount
+     * Gives the same result as adding the names one at a time
+     * @param names the Name objects to be added
+     */
+    @Override
+    public void addAll(Collection<? extends Name> names) {
+        super.addAll(names);
+        rebuildIndexes();
+    }
+
+    /**
+     * Adds many names at once using a bulk build of the tree, replacing the counts of stored entries
+     * Gives the same result as calling addOrReplace for each name in order, so the newest row of an entry wins
+     * @param names the Name objects to be added, oldest first
+     */
+    @Override
+    public void addOrReplaceAll(Collection<? extends Name> names) {
+        super.addOrReplaceAll(names);
+        rebuildIndexes();
+    }
+
+    /**
+     * Recomputes the totalcount, county index, leaderboards and persistent copy after a bulk build of the tree
+     */
+    private void rebuildIndexes() {
+        //names are weighed by their count, so the sum of the root is the count of the entries the tree kept
+        totalCount = root == null ? 0 : (int) root.sum;
+
+        //rebuild the county index and leaderboards from the names the tree kept
+        countyIndex = new CountyIndex();
+        forEach(countyIndex::add);
+        leaderboards.rebuild(this);
+        if (history != null) rebuildHistory();
+        version++;
+        aggregates = null;
+    }
+
+    /**
+     * Removes the entry with the same name, county, and gender from the list and updates the totalcount
+     * @param name the Name object to be removed
+     * @return true if the name was removed, false if it was not found
+     */
+    @Override
+    public boolean remove(Name name) {
+        //subtract the count of the stored entry, which may differ from the count of the given one
+        Name stored = name == null ? null : find(name);
+        if (stored == null || !super.remove(stored)) return false;
+        totalCount -= stored.getCount();
+        countyIndex.remove(stored);
+        leaderboards.addCount(stored, -stored.getCount());
+        if (history != null) {
+            history = history.remove(stored);
+            addCountyTotal(stored.getCounty(), -stored.getCount());
+        }
+        version++;
+        aggregates = null;
+        return true;
+    }
+
+    /**
+     * Getter for version
+     * The version changes whenever names are added or removed, so cached results can be checked against it
+     * @return number of changes made so far
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Takes a read-only snapshot of the current names
+     * The first snapshot copies the tree into a persistent tree in O(n); from then on every add and remove
+     * also updates the persistent tree by copying only the O(log n) nodes on the changed path, and taking
+     * a snapshot costs O(1). Snapshots never see later changes and can be read while the year is changed.
+     * @return snapshot of the current version
+     */
+    public YearSnapshot snapshot() {
+        if (history == null) rebuildHistory();
+        countyTotalsShared = true;
+        return new YearSnapshot(year, version, totalCount, history, historyCountyTotals);
+    }
+
+    /**
+     * Weighs each name by its count, so subtree sums are total counts
+     * @param item the Name object
+     * @return count of the name
+     */
+    @Override
+    protected long weight(Name item) {
+        return item.getCount();
+    }
+
+    /**
+     * Gets the popularity rank of a name by its total count in this year
+     * Names with equal counts are ranked alphabetically
+     * Takes O(log n) using the descendant counts of the ranking tree
+     * @param name String input name
+     * @return rank starting at 1 for the most popular name, 0 if the name doesn't exist
+     */
+    public int getRankByName (String name) {
+        return getRankByName(name, "all", "all");
+    }
+
+    /**
+     * Gets the popularity rank of a name by its total count within a county and gender
+     * @param name String input name
+     * @param county String input county, or "all"
+     * @param gender String input gender "m" or "f", or "all"
+     * @return rank starting at 1 for the most popular name, 0 if the name doesn't exist there
+     */
+    public int getRankByName (String name, String county, String gender) {
+        Leaderboard board = leaderboards.get(county, gender);
+        if (board == null) return 0;
+        return board.getRank(name);
+    }
+
+    /**
+     * Gets the k-th most popular name of this year
+     * Takes O(log n) using the descendant counts of the ranking tree
+     * @param rank rank starting at 1 for the most popular name
+     * @return the name and its total count, or null if there are fewer names
+     */
+    public NameTotal getNameByRank (int rank) {
+        return leaderboards.get("all", "all").getByRank(rank);
+    }
+
+    /**
+     * Gets the number of distinct names in this year
+     * @return number of names
+     */
+    public int getNumberOfNames () {
+        return leaderboards.get("all", "all").size();
+    }
+
+    /**
+     * Gets the total count of the k most popular names of this year
+     * Takes O(log n) using the subtree sums of the ranking tree
+     * @param k number of names
+     * @return total count of those names
+     */
+    public long getCountOfTopNames (int k) {
+        return leaderboards.get("all", "all").weightOfFirst(k);
+    }
+
+    /**
+     * Gets the k most popular names of this year
+     * @param k number of names
+     * @return names and their total counts, most popular first
+     */
+    public ArrayList<NameTotal> getTopNames (int k) {
+        return getTopNames(k, "all", "all");
+    }
+
+    /**
+     * Gets the k most popular names of this year within a county and gender
+     * Read from a leaderboard kept up to date by add and remove, so the tree is not scanned
+     * @param k number of names
+     * @param county String input county, or "all"
+     * @param gender String input gender "m" or "f", or "all"
+     * @return names and their total counts, most popular first; empty if the county doesn't exist
+     */
+    public ArrayList<NameTotal> getTopNames (int k, String county, String gender) {
+        Leaderboard board = leaderboards.get(county, gender);
+        if (board == null) return new ArrayList<>();
+        return board.first(k);
+    }
+
+    /**
+     * Freezes the current names into aggregate tables
+     * While frozen, count queries are answered by single table lookups instead of tree searches
+     * Adding or removing a name unfreezes the object
+     */
+    public void freeze() {
+        aggregates = new AggregateTables(this);
+    }
+
+    /**
+     * Checks whether count queries are currently served from aggregate tables
+     * @return true if frozen, false otherwise
+     */
+    public boolean isFrozen() {
+        return aggregates != null;
     }
 
     /**
@@ -74,29 +351,34 @@ public class YearNames extends AVLTree<Name> implements Comparable<YearNames> {
      * @return the total count for entries with that name
      */
     public int getCountByName (String name) {
-        int currentCount = 0;
-        for (Name element : searchName(name)) {
-            currentCount += element.getCount();
-        }
-        return currentCount;
+        if (aggregates != null) return aggregates.getCountByName(name);
+
+        return sumCountByName(name, this.root);
+    }
+
+    /**
+     * Gets the distinct names that start with a prefix, for autocompletion
+     * Only the range of matching names in the tree is visited
+     * @param prefix String beginning of the names
+     * @param limit maximum number of names to return
+     * @return alphabetically sorted list of at most limit names
+     */
+    public ArrayList<String> getNamesWithPrefix (String prefix, int limit) {
+        return searchNamePrefix(prefix, this.root, limit);
     }
 
     /**
      * Gets the total count for a county
      * if county.equals("all"), get totalCount
-     * To get total count, the entire tree must be traversed as Name is compared primarily by name
+     * County totals are kept by the county index, so no traversal of the tree is needed
      * @param county String input county
      * @return total count for a county
      */
     public int getTotalCountCounty (String county) {
         if (county.equals("all")) {return getTotalCount();}
+        if (aggregates != null) return aggregates.getCountByCounty(county);
 
-        int currentCount = 0;
-        for (Name element : searchCounty(county)) {
-            currentCount += element.getCount();
-        }
-        return currentCount;
-
+        return countyIndex.getTotalCount(county);
     }
 
     /**
@@ -110,10 +392,12 @@ public class YearNames extends AVLTree<Name> implements Comparable<YearNames> {
      */
     public int getCountByNameCounty (String name, String county) {
         if (county.equalsIgnoreCase("all")) {return getCountByName(name);}
+        if (aggregates != null) return aggregates.getCountByNameCounty(name, county);
 
         int currentCount = 0;
-        for (Name element : searchNameCounty(name, county)) {
-            currentCount += element.getCount();
+        ArrayList<Name> names = searchNameCounty(name, county);
+        for (int i = 0; i < names.size(); i++) {
+            currentCount += names.get(i).getCount();
         }
         return currentCount;
     }
@@ -139,6 +423,22 @@ public class YearNames extends AVLTree<Name> implements Comparable<YearNames> {
         return ((double) getCountByNameCounty(name, county) / totalCounty);
     }
 
+    /**
+     * Performs an action on each distinct name of the year, once per name, in alphabetical order
+     * Entries are ordered by name first, so the entries of one name are adjacent
+     * @param action action to perform
+     */
+    @Override
+    public void forEachDistinctName (Consumer<String> action) {
+        String[] last = {null};
+        forEach(name -> {
+            if (!name.getName().equals(last[0])) {
+                last[0] = name.getName();
+                action.accept(last[0]);
+            }
+        });
+    }
+
     /**
      * Overrides default equals method
      * Objects are equal if their year is equal, irrespective of other attributes
@@ -183,34 +483,39 @@ public class YearNames extends AVLTree<Name> implements Comparable<YearNames> {
     }
 
     /**
-     * Search for element in AVLTree; return arraylist of values with names that match
-     * @param name Name to search for
-     * @return ArrayList of Name values that match
+     * Rebuilds the persistent copy of the names and the county totals from the tree
      */
-    private ArrayList<Name> searchName(String name){
-        return searchName(name, this.root, new ArrayList<>());
+    private void rebuildHistory() {
+        ArrayList<Name> sorted = new ArrayList<>(size());
+        forEach(sorted::add);
+        history = PersistentAVLTree.fromSorted(sorted);
+
+        historyCountyTotals = new HashMap<>();
+        for (Name name : sorted) historyCountyTotals.merge(name.getCounty(), name.getCount(), Integer::sum);
+        countyTotalsShared = false;
     }
 
     /**
-     * Search for element in AVLTree; return arraylist of values with counties that match
-     * @param county County to search for
-     * @return ArrayList of Name values that match
+     * Adds to the county total of the persistent copy, copying the totals first if a snapshot holds them
+     * @param county String county
+     * @param delta amount to add, negative to subtract
      */
-    private ArrayList<Name> searchCounty(String county){
-        return super.searchCounty(county, this.root, new ArrayList<>());
+    private void addCountyTotal(String county, int delta) {
+        if (countyTotalsShared) {
+            historyCountyTotals = new HashMap<>(historyCountyTotals);
+            countyTotalsShared = false;
+        }
+        historyCountyTotals.merge(county, delta, Integer::sum);
     }
 
     /**
-     * Search for element in AVLTree; return arraylist of values with names and counties that match
-     * filters name nodes for correct county
+     * Search for element in county index; return arraylist of values with names and counties that match
+     * The returned list belongs to the index and must not be modified
      * @param name Name to search for
+     * @param county County to search for
      * @return ArrayList of Name values that match
      */
     private ArrayList<Name> searchNameCounty(String name, String county){
-        ArrayList<Name> output = new ArrayList<>();
-        for (Name nameVal : searchName(name, this.root, new ArrayList<>())) {
-            if (nameVal.getCounty().equals(county)) output.add(nameVal);
-        }
-        return output;
+        return countyIndex.getNames(name, county);
     }
 }
@@ -0,0 +1,179 @@
+package project5;
+
+import java.util.HashMap;
+import java.util.function.Consumer;
+
+/**
+ * A read-only version of the names of one year, taken with YearNames.snapshot()
+ * The snapshot shares its nodes with the persistent copy kept by the YearNames object, so taking one
+ * costs O(1) and later changes to the year are not seen by it. It can be read by any number of
+ * threads without locking while the year keeps changing.
+ * @author Joshua Donelly-Higgins
+ */
+public final class YearSnapshot implements YearStore {
+    private final int year;
+    private final long version;
+    private final int totalCount;
+    private final PersistentAVLTree<Name> names;
+    //total count by county; never modified once the snapshot is taken
+    private final HashMap<String, Integer> countyTotals;
+
+    /**
+     * Constructs a snapshot
+     * @param year the year
+     * @param version version of the year the snapshot was taken at
+     * @param totalCount total count of the year
+     * @param names the names of the year
+     * @param countyTotals total count by county, which must not be modified afterwards
+     */
+    YearSnapshot(int year, long version, int totalCount, PersistentAVLTree<Name> names, HashMap<String, Integer> countyTotals) {
+        this.year = year;
+        this.version = version;
+        this.totalCount = totalCount;
+        this.names = names;
+        this.countyTotals = countyTotals;
+    }
+
+    /**
+     * Getter for year
+     * @return year
+     */
+    @Override
+    public int getYear() {
+        return year;
+    }
+
+    /**
+     * Getter for version
+     * @return the version of the year this snapshot was taken at
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Getter for totalCount
+     * @return totalCount
+     */
+    @Override
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Gets the number of name entries in the snapshot
+     * @return number of entries
+     */
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * Performs an action on every name entry of the snapshot, in order
+     * @param action action to perform
+     */
+    public void forEach(Consumer<? super Name> action) {
+        names.forEach(action);
+    }
+
+    /**
+     * Gets the total count by name
+     * @param name String input name
+     * @return the total count for entries with that name
+     */
+    @Override
+    public int getCountByName (String name) {
+        return sumCount(names.root, name, null);
+    }
+
+    /**
+     * Gets the total count for a county
+     * if county.equals("all"), get totalCount
+     * @param county String input county
+     * @return total count for a county
+     */
+    @Override
+    public int getTotalCountCounty (String county) {
+        if (county.equals("all")) {return getTotalCount();}
+
+        Integer total = countyTotals.get(county);
+        return total == null ? 0 : total;
+    }
+
+    /**
+     * Gets the total count by name within a county
+     * if county.equals("all"), get the count by name
+     * @param name String input name
+     * @param county String input county
+     * @return the total count for entries with that name and county
+     */
+    @Override
+    public int getCountByNameCounty (String name, String county) {
+        if (county.equalsIgnoreCase("all")) {return getCountByName(name);}
+
+        return sumCount(names.root, name, county);
+    }
+
+    /**
+     * Gets the fraction of babies born with a name within a county for a year
+     * @param name String input name
+     * @param county String input county
+     * @return double from 0 to 1
+     */
+    @Override
+    public double getFractionByNameCounty (String name, String county) {
+        int totalCounty = getTotalCountCounty(county);
+        if (totalCounty == 0) return 0;
+        return ((double) getCountByNameCounty(name, county) / totalCounty);
+    }
+
+    /**
+     * Performs an action on each distinct name of the year, once per name, in alphabetical order
+     * Entries are ordered by name first, so the entries of one name are adjacent
+     * @param action action to perform
+     */
+    @Override
+    public void forEachDistinctName (Consumer<String> action) {
+        String[] last = {null};
+        forEach(name -> {
+            if (!name.getName().equals(last[0])) {
+                last[0] = name.getName();
+                action.accept(last[0]);
+            }
+        });
+    }
+
+    /**
+     * Sums the counts of the entries of a subtree that match a name and county
+     * Entries are ordered by name and then county, so only the subtrees that overlap the range are visited
+     * @param node root of the subtree
+     * @param name name to find
+     * @param county county to find, or null for every county
+     * @return total count, 0 if there are no matches
+     */
+    private static int sumCount(PersistentAVLTree.Node<Name> node, String name, String county) {
+        int total = 0;
+        while (node != null) {
+            int comparison = node.data.getName().compareTo(name);
+            if (comparison == 0 && county != null) comparison = node.data.getCounty().compareTo(county);
+            if (comparison < 0) {
+                node = node.right;
+            } else if (comparison > 0) {
+                node = node.left;
+            } else { //matches may be on both sides
+                total += node.data.getCount() + sumCount(node.left, name, county);
+                node = node.right;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns a String representation of YearSnapshot
+     * @return "List of names for year [year], version [version]"
+     */
+    @Override
+    public String toString() {
+        return String.format("List of names for year %d, version %d", getYear(), getVersion());
+    }
+}
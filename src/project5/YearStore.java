@@ -0,0 +1,59 @@
+package project5;
+
+import java.util.function.Consumer;
+
+/**
+ * The read queries shared by the different ways of storing the names of one year
+ * All names and counties are expected in lowercase; the county "all" stands for every county
+ * @author Joshua Donelly-Higgins
+ */
+public interface YearStore {
+
+    /**
+     * Getter for year
+     * @return year
+     */
+    int getYear();
+
+    /**
+     * Getter for the total count of all names in the year
+     * @return totalCount
+     */
+    int getTotalCount();
+
+    /**
+     * Gets the total count by name, over all counties and genders
+     * @param name String input name
+     * @return the total count for entries with that name, 0 if it doesn't exist
+     */
+    int getCountByName(String name);
+
+    /**
+     * Gets the total count for a county
+     * @param county String input county, or "all"
+     * @return total count for a county
+     */
+    int getTotalCountCounty(String county);
+
+    /**
+     * Gets the total count by name within a county
+     * @param name String input name
+     * @param county String input county, or "all"
+     * @return the total count for entries with that name and county, 0 if there are none
+     */
+    int getCountByNameCounty(String name, String county);
+
+    /**
+     * Gets the fraction of babies born with a name within a county for a year
+     * @param name String input name
+     * @param county String input county, or "all"
+     * @return double from 0 to 1
+     */
+    double getFractionByNameCounty(String name, String county);
+
+    /**
+     * Performs an action on each distinct name of the year, once per name, in alphabetical order
+     * @param action action to perform
+     */
+    void forEachDistinctName(Consumer<String> action);
+}
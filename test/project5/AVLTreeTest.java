@@ -0,0 +1,88 @@
+package project5;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Regression tests for the size accounting and the rank/select queries of AVLTree
+ * @author Joshua Donelly-Higgins
+ */
+public class AVLTreeTest {
+
+    @Test
+    public void addOfDuplicateLeavesSizeUnchanged() {
+        AVLTree<Integer> tree = new AVLTree<>();
+        assertTrue(tree.add(5));
+        assertFalse(tree.add(5));
+        assertFalse(tree.add(null));
+        assertEquals(1, tree.size());
+    }
+
+    @Test
+    public void addAllKeepsOneOfEqualItems() {
+        AVLTree<Integer> tree = new AVLTree<>();
+        tree.add(3);
+        tree.addAll(Arrays.asList(1, 3, 2, 1, null, 4));
+        assertEquals(4, tree.size());
+        assertEquals(Arrays.asList(1, 2, 3, 4), tree.first(10));
+    }
+
+    @Test
+    public void removeUpdatesSize() {
+        AVLTree<Integer> tree = new AVLTree<>();
+        for (int i = 0; i < 10; i++) tree.add(i);
+        assertTrue(tree.remove(4));
+        assertFalse(tree.remove(4));
+        assertFalse(tree.remove(42));
+        assertEquals(9, tree.size());
+        assertFalse(tree.contains(4));
+    }
+
+    @Test
+    public void rankAndSelectFollowSortedOrder() {
+        Random random = new Random(7);
+        AVLTree<Integer> tree = new AVLTree<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        ArrayList<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) values.add(i * 2);
+        Collections.shuffle(values, random);
+        for (int value : values) {
+            tree.add(value);
+            expected.add(value);
+        }
+        //remove some so that the descendant counts are also checked after deletions
+        for (int i = 0; i < 500; i++) {
+            int value = values.get(i);
+            tree.remove(value);
+            expected.remove(value);
+        }
+
+        assertEquals(expected.size(), tree.size());
+        int index = 0;
+        for (int value : expected) {
+            assertEquals(value, tree.select(index));
+            assertEquals(index, tree.rank(value));
+            //odd values are never stored; their rank is the number of smaller stored values
+            assertEquals(expected.headSet(value + 1).size(), tree.rank(value + 1));
+            index++;
+        }
+    }
+
+    @Test
+    public void selectOutsideTreeIsRejected() {
+        AVLTree<Integer> tree = new AVLTree<>();
+        tree.add(1);
+        assertThrows(IllegalArgumentException.class, () -> tree.select(1));
+        assertThrows(IllegalArgumentException.class, () -> tree.select(-1));
+    }
+}
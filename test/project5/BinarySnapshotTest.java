@@ -0,0 +1,130 @@
+package project5;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Round-trip tests of BinarySnapshot: the mapped years must answer like the YearNames they were written from
+ * @author Joshua Donelly-Higgins
+ */
+public class BinarySnapshotTest {
+    private static final String[] COUNTIES = {"kings", "queens", "albany"};
+
+    @TempDir
+    File directory;
+
+    @Test
+    public void reopenedYearsMatchSource() throws IOException {
+        List<YearNames> source = Arrays.asList(year(2010, 0), year(2011, 3));
+        File file = new File(directory, "names.bin");
+        BinarySnapshot.write(source, file);
+        assertTrue(BinarySnapshot.isSnapshot(file));
+
+        List<YearStore> mapped = BinarySnapshot.open(file).getYears();
+        assertEquals(source.size(), mapped.size());
+        for (int i = 0; i < source.size(); i++) {
+            YearNames expected = source.get(i);
+            YearStore actual = mapped.get(i);
+            assertEquals(expected.getYear(), actual.getYear());
+            assertEquals(expected.getTotalCount(), actual.getTotalCount());
+            for (String county : COUNTIES) assertEquals(expected.getTotalCountCounty(county), actual.getTotalCountCounty(county));
+
+            ArrayList<String> names = new ArrayList<>();
+            expected.forEachDistinctName(names::add);
+            ArrayList<String> mappedNames = new ArrayList<>();
+            actual.forEachDistinctName(mappedNames::add);
+            assertEquals(names, mappedNames);
+
+            for (String name : names) {
+                assertEquals(expected.getCountByName(name), actual.getCountByName(name));
+                for (String county : COUNTIES) {
+                    assertEquals(expected.getCountByNameCounty(name, county), actual.getCountByNameCounty(name, county));
+                    assertEquals(expected.getFractionByNameCounty(name, county), actual.getFractionByNameCounty(name, county));
+                }
+            }
+
+            //the names with a prefix are a contiguous range of the sorted names
+            ArrayList<String> prefixed = new ArrayList<>();
+            for (String name : mappedNames) {
+                if (name.startsWith("em")) prefixed.add(name);
+            }
+            assertEquals(expected.getNamesWithPrefix("em", 100), prefixed);
+
+            //the most popular names, ranked from the mapped counts
+            ArrayList<String> ranked = new ArrayList<>(mappedNames);
+            ranked.sort((a, b) -> actual.getCountByName(b) != actual.getCountByName(a)
+                    ? actual.getCountByName(b) - actual.getCountByName(a) : a.compareTo(b));
+            ArrayList<NameTotal> top = expected.getTopNames(3);
+            for (int k = 0; k < top.size(); k++) {
+                assertEquals(top.get(k).getName(), ranked.get(k));
+                assertEquals(top.get(k).getCount(), actual.getCountByName(ranked.get(k)));
+            }
+        }
+    }
+
+    @Test
+    public void unknownNameOrCountyCountsZero() throws IOException {
+        File file = new File(directory, "names.bin");
+        BinarySnapshot.write(Arrays.asList(year(2010, 0)), file);
+        YearStore mapped = BinarySnapshot.open(file).getYears().get(0);
+        assertEquals(0, mapped.getCountByName("zzzz"));
+        assertEquals(0, mapped.getTotalCountCounty("nowhere"));
+        assertEquals(0, mapped.getCountByNameCounty("emma", "nowhere"));
+        assertEquals(0, mapped.getCountByNameCounty("zzzz", "kings"));
+        assertEquals(0, mapped.getFractionByNameCounty("emma", "nowhere"));
+    }
+
+    @Test
+    public void foreignAndTruncatedFilesAreRejected() throws IOException {
+        File foreign = new File(directory, "names.csv");
+        Files.write(foreign.toPath(), "Year,First Name,County,Sex,Count\n".getBytes());
+        assertFalse(BinarySnapshot.isSnapshot(foreign));
+        assertThrows(IOException.class, () -> BinarySnapshot.open(foreign));
+
+        File empty = new File(directory, "empty.bin");
+        Files.write(empty.toPath(), new byte[0]);
+        assertFalse(BinarySnapshot.isSnapshot(empty));
+        assertThrows(IOException.class, () -> BinarySnapshot.open(empty));
+
+        File file = new File(directory, "names.bin");
+        BinarySnapshot.write(Arrays.asList(year(2010, 0), year(2011, 3)), file);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        for (int length : new int[] {6, 12, 40, bytes.length / 2, bytes.length - 1}) {
+            File truncated = new File(directory, "truncated" + length + ".bin");
+            Files.write(truncated.toPath(), Arrays.copyOf(bytes, length));
+            assertTrue(BinarySnapshot.isSnapshot(truncated));
+            assertThrows(IOException.class, () -> BinarySnapshot.open(truncated));
+        }
+    }
+
+    /**
+     * Builds a year with a few names spread over the counties and both genders
+     * @param year the year
+     * @param shift varies the counts between years
+     * @return the year
+     */
+    private static YearNames year(int year, int shift) {
+        YearNames element = new YearNames(year);
+        String[] names = {"emma", "emily", "liam", "noah", "olivia", "emmett"};
+        for (int i = 0; i < names.length; i++) {
+            for (int j = 0; j < COUNTIES.length; j++) {
+                if ((i + j + shift) % 4 == 0) continue;
+                element.add(new Name(names[i], i % 2 == 0 ? "f" : "m", 5 + (i * 7 + j * 3 + shift) % 11, COUNTIES[j]));
+            }
+        }
+        element.add(new Name("emma", "m", 5, "kings"));
+        return element;
+    }
+}
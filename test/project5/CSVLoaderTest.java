@@ -0,0 +1,96 @@
+package project5;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Regression tests for the row accounting of CSVLoader, including appends of repeated and corrected rows
+ * @author Joshua Donelly-Higgins
+ */
+public class CSVLoaderTest {
+    private static final String HEADER = "Year,First Name,County,Sex,Count\n";
+
+    @Test
+    public void loadCountsParsedAndRejectedRows() throws IOException {
+        CSVLoader loader = new CSVLoader();
+        loader.load(csv(HEADER + "2010,EMMA,Kings,F,10\n2010,LIAM,Kings,M\n2011,EMMA,Kings,F,12\n"));
+        assertEquals(2, loader.getRowsParsed());
+        assertEquals(2, loader.getRowsRejected());
+        assertEquals(2, loader.getYears().size());
+    }
+
+    @Test
+    public void loadKeepsLastOfRepeatedRows() throws IOException {
+        String data = HEADER + "2010,EMMA,Kings,F,10\n2010,LIAM,Kings,M,8\n2010,Emma,KINGS,F,12\n";
+        CSVLoader loader = new CSVLoader();
+        loader.load(csv(data));
+        assertEquals(3, loader.getRowsParsed());
+
+        YearNames year = loader.getYears().get(0);
+        assertEquals(2, year.size());
+        assertEquals(20, year.getTotalCount());
+        assertEquals(12, year.getCountByNameCounty("emma", "kings"));
+        assertEquals(20, year.getTotalCountCounty("kings"));
+    }
+
+    @Test
+    public void parallelLoadKeepsLastOfRepeatedRows(@TempDir File directory) throws IOException {
+        StringBuilder data = new StringBuilder(HEADER);
+        for (int i = 1; i <= 500; i++) data.append("2010,EMMA,Kings,F,").append(i).append('\n');
+        File file = new File(directory, "names.csv");
+        Files.write(file.toPath(), data.toString().getBytes(StandardCharsets.UTF_8));
+
+        CSVLoader loader = new CSVLoader();
+        loader.loadParallel(file, 4);
+        YearNames year = loader.getYears().get(0);
+        assertEquals(1, year.size());
+        assertEquals(500, year.getTotalCount());
+    }
+
+    @Test
+    public void appendSkipsRepeatedRows() throws IOException {
+        String data = HEADER + "2010,EMMA,Kings,F,10\n2010,LIAM,Kings,M,8\n";
+        CSVLoader loader = new CSVLoader();
+        loader.load(csv(data));
+        assertEquals(0, loader.append(csv(data)));
+        assertEquals(0, loader.getRowsReplaced());
+
+        YearNames year = loader.getYears().get(0);
+        assertEquals(2, year.size());
+        assertEquals(18, year.getTotalCount());
+    }
+
+    @Test
+    public void appendCorrectsCountsOfStoredRows() throws IOException {
+        CSVLoader loader = new CSVLoader();
+        loader.load(csv(HEADER + "2010,EMMA,Kings,F,10\n2010,LIAM,Kings,M,8\n"));
+        //the last of several rows for one key within an append is used
+        int added = loader.append(csv("2010,EMMA,Kings,F,11\n2010,EMMA,Kings,F,12\n2010,NOAH,Kings,M,5\n"));
+        assertEquals(1, added);
+        assertEquals(1, loader.getRowsReplaced());
+
+        YearNames year = loader.getYears().get(0);
+        assertEquals(3, year.size());
+        assertEquals(25, year.getTotalCount());
+        assertEquals(12, year.getCountByNameCounty("emma", "kings"));
+        assertEquals(25, year.getTotalCountCounty("kings"));
+    }
+
+    /**
+     * Wraps .csv text in a stream
+     * @param text the .csv lines
+     * @return stream of the UTF-8 bytes
+     */
+    private static InputStream csv(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
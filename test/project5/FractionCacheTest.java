@@ -0,0 +1,100 @@
+package project5;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of the hits, LRU eviction and per-year invalidation of FractionCache
+ * @author Joshua Donelly-Higgins
+ */
+public class FractionCacheTest {
+
+    @Test
+    public void repeatedLookupIsHit() {
+        List<CountingYear> years = years();
+        FractionCache cache = new FractionCache(years, 4);
+        double[] first = cache.getFractions("emma", "kings");
+        first[0] = 42; //the caller gets a copy
+        double[] second = cache.getFractions("EMMA", "Kings");
+
+        assertArrayEquals(new double[] {0.5, 0.25}, second);
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, years.get(0).lookups);
+        assertEquals(1, years.get(1).lookups);
+    }
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvicted() {
+        List<CountingYear> years = years();
+        FractionCache cache = new FractionCache(years, 2);
+        cache.getFractions("emma", "kings");
+        cache.getFractions("liam", "kings");
+        cache.getFractions("emma", "kings"); //liam is now the least recently used
+        cache.getFractions("noah", "all");
+        assertEquals(2, cache.size());
+        assertEquals(3, cache.getMisses());
+
+        cache.getFractions("emma", "kings");
+        assertEquals(2, cache.getHits());
+        cache.getFractions("liam", "kings");
+        assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    public void onlyChangedYearIsRecomputed() {
+        List<CountingYear> years = years();
+        FractionCache cache = new FractionCache(years, 4);
+        cache.getFractions("emma", "kings");
+
+        years.get(1).add(new Name("emma", "m", 2, "kings"));
+        assertArrayEquals(new double[] {0.5, 0.5}, cache.getFractions("emma", "kings"));
+        assertEquals(1, years.get(0).lookups);
+        assertEquals(2, years.get(1).lookups);
+
+        years.get(0).addOrReplace(new Name("emma", "f", 6, "kings"));
+        assertArrayEquals(new double[] {0.75, 0.5}, cache.getFractions("emma", "kings"));
+        assertEquals(2, years.get(0).lookups);
+        assertEquals(2, years.get(1).lookups);
+
+        cache.getFractions("emma", "kings");
+        assertEquals(3, cache.getMisses());
+        assertEquals(1, cache.getHits());
+    }
+
+    /**
+     * Builds two years; emma has half of kings in the first year and a quarter in the second
+     * @return the years, counting their lookups
+     */
+    private static List<CountingYear> years() {
+        CountingYear first = new CountingYear(2010);
+        first.add(new Name("emma", "f", 2, "kings"));
+        first.add(new Name("liam", "m", 2, "kings"));
+        CountingYear second = new CountingYear(2011);
+        second.add(new Name("emma", "f", 1, "kings"));
+        second.add(new Name("noah", "m", 3, "kings"));
+        return Arrays.asList(first, second);
+    }
+
+    /**
+     * A year that counts how often a fraction is computed from it
+     */
+    private static class CountingYear extends YearNames {
+        private int lookups;
+
+        CountingYear(int year) {
+            super(year);
+        }
+
+        @Override
+        public double getFractionByNameCounty(String name, String county) {
+            lookups++;
+            return super.getFractionByNameCounty(name, county);
+        }
+    }
+}
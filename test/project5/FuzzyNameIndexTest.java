@@ -0,0 +1,67 @@
+package project5;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Regression tests for the Soundex keys and edit-distance lookups of FuzzyNameIndex
+ * @author Joshua Donelly-Higgins
+ */
+public class FuzzyNameIndexTest {
+
+    @Test
+    public void soundexGroupsSpellingVariants() {
+        assertEquals("A350", FuzzyNameIndex.soundex("aiden"));
+        assertEquals("A350", FuzzyNameIndex.soundex("Ayden"));
+        assertEquals("R163", FuzzyNameIndex.soundex("robert"));
+        assertEquals("R163", FuzzyNameIndex.soundex("rupert"));
+        assertEquals("A261", FuzzyNameIndex.soundex("ashcraft"));
+        assertEquals("T522", FuzzyNameIndex.soundex("tymczak"));
+        assertEquals("", FuzzyNameIndex.soundex("-'"));
+    }
+
+    @Test
+    public void similarNamesMatchBruteForce() {
+        List<String> vocabulary = Arrays.asList("aiden", "ayden", "aidan", "caiden", "aden", "adam", "emma", "emmy", "liam", "noah");
+        FuzzyNameIndex index = new FuzzyNameIndex(Collections.singletonList(year(2010, vocabulary)));
+        for (String query : Arrays.asList("aiden", "emma", "lia", "zzzz")) {
+            for (int distance = 0; distance <= 2; distance++) {
+                ArrayList<String> expected = new ArrayList<>();
+                for (String name : vocabulary) {
+                    if (BKTree.distance(query, name) <= distance) expected.add(name);
+                }
+                Collections.sort(expected);
+                assertEquals(expected, index.getSimilarNames(query, distance));
+            }
+        }
+    }
+
+    @Test
+    public void countsAreSummedOverVariantsPerYear() {
+        YearNames first = year(2010, Arrays.asList("aiden", "ayden", "emma"));
+        YearNames second = year(2011, Arrays.asList("aidan"));
+        FuzzyNameIndex index = new FuzzyNameIndex(Arrays.asList(first, new ColumnarYearNames(second)));
+        assertEquals(Arrays.asList("aidan", "aiden", "ayden"), index.getPhoneticMatches("aiden"));
+        assertArrayEquals(new int[] {2, 1}, index.getPhoneticCounts("aiden", "kings"));
+        assertArrayEquals(new int[] {0, 0}, index.getPhoneticCounts("aiden", "queens"));
+    }
+
+    /**
+     * Builds a year with one entry of count 1 in kings per name
+     * @param year the year
+     * @param names the names
+     * @return the year
+     */
+    private static YearNames year(int year, List<String> names) {
+        YearNames element = new YearNames(year);
+        for (String name : names) element.add(new Name(name, "f", 1, "kings"));
+        return element;
+    }
+}
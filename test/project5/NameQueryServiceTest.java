@@ -0,0 +1,100 @@
+package project5;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests of the write path of NameQueryService: the newest row wins and readers see whole batches
+ * @author Joshua Donelly-Higgins
+ */
+public class NameQueryServiceTest {
+
+    @Test
+    public void newestRowWins() {
+        NameQueryService service = new NameQueryService(Collections.singletonList(year(2010, 100)));
+        service.add(2010, new Name("emma", "f", 5, "kings"));
+        service.add(2010, new Name("emma", "f", 7, "kings"));
+        //a batch large enough to be bulk built, repeating a key within itself
+        ArrayList<Name> batch = new ArrayList<>();
+        for (int i = 0; i < 50; i++) batch.add(new Name("liam", "m", 1 + i, "kings"));
+        service.addAll(2010, batch);
+        service.add(2011, new Name("noah", "m", 3, "queens"));
+
+        YearStore year = service.getYear(2010);
+        assertEquals(7, year.getCountByNameCounty("emma", "kings"));
+        assertEquals(50, year.getCountByNameCounty("liam", "kings"));
+        assertEquals(100 + 7 + 50, year.getTotalCount());
+        assertEquals("liam", service.getTopNames(2010, 1, "kings", "all").get(0).getName());
+        assertEquals(3, service.getYear(2011).getTotalCount());
+        assertEquals(2, service.getYears().size());
+        assertNull(service.getYear(2012));
+    }
+
+    @Test
+    public void readersSeeWholeBatches() throws InterruptedException {
+        int base = 1000;
+        NameQueryService service = new NameQueryService(Collections.singletonList(year(2010, base)));
+
+        //small batches are inserted name by name, large ones rebuild the year; both must publish atomically
+        ArrayList<List<Name>> batches = new ArrayList<>();
+        HashSet<Integer> visible = new HashSet<>();
+        int added = 0;
+        visible.add(added);
+        for (int b = 0; b < 60; b++) {
+            int size = b % 3 == 0 ? 300 : 7;
+            ArrayList<Name> batch = new ArrayList<>();
+            for (int i = 0; i < size; i++) batch.add(new Name("b" + b + "n" + i, "f", 1, "batch"));
+            batches.add(batch);
+            added += size;
+            visible.add(added);
+        }
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+        ArrayList<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 3; r++) {
+            Thread reader = new Thread(() -> {
+                while (writing.get() && failure.get() == null) {
+                    YearStore year = service.getYear(2010);
+                    int count = year.getTotalCountCounty("batch");
+                    if (!visible.contains(count) || year.getTotalCount() != base + count) {
+                        failure.set("saw " + count + " batch names of total " + year.getTotalCount());
+                    }
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+
+        for (List<Name> batch : batches) service.addAll(2010, batch);
+        writing.set(false);
+        for (Thread reader : readers) reader.join();
+
+        assertNull(failure.get());
+        YearStore year = service.getYear(2010);
+        assertEquals(added, year.getTotalCountCounty("batch"));
+        assertEquals(base + added, year.getTotalCount());
+        assertEquals(1, year.getCountByName("b59n6"));
+    }
+
+    /**
+     * Builds a year with names of count 1 in kings
+     * @param year the year
+     * @param size number of names
+     * @return the year
+     */
+    private static YearNames year(int year, int size) {
+        YearNames element = new YearNames(year);
+        for (int i = 0; i < size; i++) element.add(new Name("n" + i, "f", 1, "kings"));
+        return element;
+    }
+}
@@ -0,0 +1,137 @@
+package project5;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of the series, slices, deltas, moving averages and fastest rising names of NameTrends
+ * against the per-year counts of the years they were built from
+ * @author Joshua Donelly-Higgins
+ */
+public class NameTrendsTest {
+    private static final double EPSILON = 1e-12;
+
+    @Test
+    public void seriesMatchPerYearCounts() {
+        List<YearNames> years = years();
+        NameTrends trends = new NameTrends(years);
+        assertEquals(2010, trends.getFirstYear());
+        assertEquals(2014, trends.getLastYear());
+        assertEquals(names(years).size(), trends.getNumberOfNames());
+
+        for (String name : names(years)) {
+            int[] expected = new int[5];
+            for (YearNames element : years) expected[element.getYear() - 2010] = element.getCountByName(name);
+            assertArrayEquals(expected, trends.getCounts(name));
+            assertArrayEquals(Arrays.copyOfRange(expected, 1, 4), trends.getCounts(name, 2011, 2013));
+
+            double[] fractions = trends.getFractions(name);
+            for (YearNames element : years) {
+                assertEquals(element.getFractionByName(name), fractions[element.getYear() - 2010], EPSILON);
+            }
+            //2012 has no data
+            assertEquals(0, fractions[2]);
+
+            int[] deltas = trends.getDeltas(name, 2010, 2014);
+            assertEquals(4, deltas.length);
+            for (int i = 0; i < deltas.length; i++) assertEquals(expected[i + 1] - expected[i], deltas[i]);
+
+            double[] averages = trends.getMovingAverage(name, 3, 2010, 2014);
+            assertEquals(3, averages.length);
+            for (int i = 0; i < averages.length; i++) {
+                assertEquals((fractions[i] + fractions[i + 1] + fractions[i + 2]) / 3, averages[i], EPSILON);
+            }
+        }
+        assertArrayEquals(new int[5], trends.getCounts("zzzz"));
+        assertEquals(0, trends.getDeltas("emma", 2011, 2011).length);
+        assertEquals(0, trends.getMovingAverage("emma", 4, 2011, 2013).length);
+    }
+
+    @Test
+    public void fastestRisingMatchesBruteForce() {
+        List<YearNames> years = years();
+        NameTrends trends = new NameTrends(years);
+        YearNames from = years.get(0);
+        YearNames to = years.get(years.size() - 1);
+
+        ArrayList<NameRise> expected = new ArrayList<>();
+        for (String name : names(years)) expected.add(new NameRise(name, from.getFractionByName(name), to.getFractionByName(name)));
+        Collections.sort(expected);
+
+        for (int k : new int[] {0, 1, 5, expected.size() + 3}) {
+            ArrayList<NameRise> rising = trends.getFastestRising(2010, 2014, k);
+            assertEquals(Math.min(k, expected.size()), rising.size());
+            for (int i = 0; i < rising.size(); i++) {
+                assertEquals(expected.get(i).getName(), rising.get(i).getName());
+                assertEquals(expected.get(i).getChange(), rising.get(i).getChange(), EPSILON);
+            }
+        }
+    }
+
+    @Test
+    public void otherYearStoresGiveSameSeries() {
+        List<YearNames> years = years();
+        NameTrends fromTrees = new NameTrends(years);
+        ArrayList<YearStore> columnar = new ArrayList<>();
+        for (YearNames element : years) columnar.add(new ColumnarYearNames(element));
+        NameTrends fromColumns = new NameTrends(columnar);
+
+        assertEquals(fromTrees.getNumberOfNames(), fromColumns.getNumberOfNames());
+        for (String name : names(years)) {
+            assertArrayEquals(fromTrees.getCounts(name), fromColumns.getCounts(name));
+            assertArrayEquals(fromTrees.getFractions(name), fromColumns.getFractions(name), EPSILON);
+        }
+    }
+
+    @Test
+    public void invalidRangesAreRejected() {
+        NameTrends trends = new NameTrends(years());
+        assertThrows(IllegalArgumentException.class, () -> trends.getCounts("emma", 2009, 2012));
+        assertThrows(IllegalArgumentException.class, () -> trends.getCounts("emma", 2013, 2011));
+        assertThrows(IllegalArgumentException.class, () -> trends.getFastestRising(2010, 2015, 3));
+        assertThrows(IllegalArgumentException.class, () -> trends.getMovingAverage("emma", 0, 2010, 2014));
+        assertThrows(IllegalArgumentException.class, () -> new NameTrends(new ArrayList<YearNames>()));
+    }
+
+    /**
+     * Builds the years 2010, 2011, 2013 and 2014 with random counts over two counties and both genders
+     * @return the years, sorted
+     */
+    private static List<YearNames> years() {
+        Random random = new Random(3);
+        String[] names = {"emma", "liam", "noah", "olivia", "ava", "mia", "lucas", "zoe"};
+        ArrayList<YearNames> years = new ArrayList<>();
+        for (int year : new int[] {2010, 2011, 2013, 2014}) {
+            YearNames element = new YearNames(year);
+            for (String name : names) {
+                for (String county : new String[] {"kings", "queens"}) {
+                    if (random.nextInt(4) == 0) continue;
+                    element.add(new Name(name, random.nextBoolean() ? "f" : "m", 1 + random.nextInt(50), county));
+                }
+            }
+            years.add(element);
+        }
+        return years;
+    }
+
+    /**
+     * Gets the distinct names of several years
+     * @param years the years
+     * @return the names, sorted
+     */
+    private static TreeSet<String> names(List<YearNames> years) {
+        TreeSet<String> names = new TreeSet<>();
+        for (YearNames element : years) element.forEachDistinctName(names::add);
+        return names;
+    }
+}
@@ -0,0 +1,129 @@
+package project5;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Regression tests for the size and total count accounting of YearNames
+ * @author Joshua Donelly-Higgins
+ */
+public class YearNamesTest {
+
+    @Test
+    public void addOfDuplicateLeavesSizeAndTotalUnchanged() {
+        YearNames year = new YearNames(2010);
+        assertTrue(year.add(new Name("emma", "f", 10, "kings")));
+        assertFalse(year.add(new Name("emma", "f", 7, "kings")));
+        assertEquals(1, year.size());
+        assertEquals(10, year.getTotalCount());
+        assertEquals(10, year.getCountByNameCounty("emma", "kings"));
+    }
+
+    @Test
+    public void addOrMergeAccumulatesCount() {
+        YearNames year = new YearNames(2010);
+        assertTrue(year.addOrMerge(new Name("emma", "f", 10, "kings")));
+        assertFalse(year.addOrMerge(new Name("emma", "f", 7, "kings")));
+        assertTrue(year.addOrMerge(new Name("emma", "f", 3, "queens")));
+        assertEquals(2, year.size());
+        assertEquals(20, year.getTotalCount());
+        assertEquals(17, year.getCountByNameCounty("emma", "kings"));
+        assertEquals(17, year.getTotalCountCounty("kings"));
+        assertEquals(20, year.getCountByName("emma"));
+        assertEquals(20, year.getTopNames(1).get(0).getCount());
+    }
+
+    @Test
+    public void addOrReplaceCorrectsCount() {
+        YearNames year = new YearNames(2010);
+        year.add(new Name("liam", "m", 10, "kings"));
+        YearSnapshot before = year.snapshot();
+        assertFalse(year.addOrReplace(new Name("liam", "m", 4, "kings")));
+        assertEquals(10, before.getCountByNameCounty("liam", "kings"));
+        assertEquals(4, year.snapshot().getCountByNameCounty("liam", "kings"));
+        assertEquals(4, year.snapshot().getTotalCountCounty("kings"));
+        assertEquals(1, year.size());
+        assertEquals(4, year.getTotalCount());
+        assertEquals(4, year.getTotalCountCounty("kings"));
+        assertEquals(4, year.getTopNames(1, "kings", "m").get(0).getCount());
+    }
+
+    @Test
+    public void addOrReplaceAllKeepsNewestRow() {
+        YearNames year = new YearNames(2010);
+        year.add(new Name("liam", "m", 10, "kings"));
+        year.add(new Name("emma", "f", 3, "queens"));
+        year.addOrReplaceAll(Arrays.asList(new Name("liam", "m", 4, "kings"), new Name("noah", "m", 2, "kings"),
+                new Name("noah", "m", 5, "kings")));
+        assertEquals(3, year.size());
+        assertEquals(12, year.getTotalCount());
+        assertEquals(4, year.getCountByNameCounty("liam", "kings"));
+        assertEquals(5, year.getCountByName("noah"));
+        assertEquals(9, year.getTotalCountCounty("kings"));
+        assertEquals("noah", year.getTopNames(1, "kings", "m").get(0).getName());
+    }
+
+    @Test
+    public void removeSubtractsStoredCount() {
+        YearNames year = new YearNames(2010);
+        year.add(new Name("emma", "f", 10, "kings"));
+        year.add(new Name("emma", "f", 5, "queens"));
+        //the count of the given name is ignored; the stored one is subtracted
+        assertTrue(year.remove(new Name("emma", "f", 1, "kings")));
+        assertFalse(year.remove(new Name("emma", "f", 1, "kings")));
+        assertEquals(1, year.size());
+        assertEquals(5, year.getTotalCount());
+        assertEquals(0, year.getTotalCountCounty("kings"));
+        assertEquals(5, year.getCountByName("emma"));
+    }
+
+    @Test
+    public void accountingMatchesContentsAfterMixedChanges() {
+        Random random = new Random(11);
+        YearNames year = new YearNames(2010);
+        //expected count per key
+        HashMap<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            String name = "n" + random.nextInt(200);
+            String county = random.nextBoolean() ? "kings" : "queens";
+            Name entry = new Name(name, "f", 1 + random.nextInt(20), county);
+            String key = name + "|" + county;
+            switch (random.nextInt(4)) {
+                case 0:
+                    if (year.add(entry)) expected.put(key, entry.getCount());
+                    break;
+                case 1:
+                    year.addOrMerge(entry);
+                    expected.merge(key, entry.getCount(), Integer::sum);
+                    break;
+                case 2:
+                    year.addOrReplace(entry);
+                    expected.put(key, entry.getCount());
+                    break;
+                default:
+                    if (year.remove(entry)) expected.remove(key);
+            }
+        }
+
+        assertEquals(expected.size(), year.size());
+        int total = 0;
+        for (int count : expected.values()) total += count;
+        assertEquals(total, year.getTotalCount());
+        ArrayList<Name> stored = new ArrayList<>();
+        year.forEach(stored::add);
+        assertEquals(expected.size(), stored.size());
+        for (Name name : stored) {
+            assertEquals((int) expected.get(name.getName() + "|" + name.getCounty()), name.getCount());
+        }
+        int countyTotals = year.getTotalCountCounty("kings") + year.getTotalCountCounty("queens");
+        assertEquals(total, countyTotals);
+    }
+}
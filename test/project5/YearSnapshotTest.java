@@ -0,0 +1,85 @@
+package project5;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that snapshots of YearNames and versions of PersistentAVLTree stay fixed while the live tree changes
+ * @author Joshua Donelly-Higgins
+ */
+public class YearSnapshotTest {
+
+    @Test
+    public void snapshotIgnoresLaterChanges() {
+        YearNames year = new YearNames(2010);
+        year.add(new Name("emma", "f", 10, "kings"));
+        year.add(new Name("liam", "m", 8, "kings"));
+        year.add(new Name("noah", "m", 4, "queens"));
+        YearSnapshot snapshot = year.snapshot();
+        List<String> before = entries(snapshot);
+
+        year.add(new Name("olivia", "f", 6, "queens"));
+        year.addOrMerge(new Name("emma", "f", 5, "kings"));
+        year.addOrReplace(new Name("liam", "m", 2, "kings"));
+        year.remove(new Name("noah", "m", 4, "queens"));
+        YearSnapshot later = year.snapshot();
+
+        assertEquals(before, entries(snapshot));
+        assertEquals(3, snapshot.size());
+        assertEquals(22, snapshot.getTotalCount());
+        assertEquals(18, snapshot.getTotalCountCounty("kings"));
+        assertEquals(4, snapshot.getTotalCountCounty("queens"));
+        assertEquals(10, snapshot.getCountByNameCounty("emma", "kings"));
+        assertEquals(8, snapshot.getCountByName("liam"));
+        assertEquals(4, snapshot.getCountByName("noah"));
+        assertEquals(0, snapshot.getCountByName("olivia"));
+
+        assertTrue(later.getVersion() > snapshot.getVersion());
+        assertEquals(Arrays.asList("emma|kings|f|15", "liam|kings|m|2", "olivia|queens|f|6"), entries(later));
+        assertEquals(23, later.getTotalCount());
+        assertEquals(17, later.getTotalCountCounty("kings"));
+        assertEquals(6, later.getTotalCountCounty("queens"));
+    }
+
+    @Test
+    public void persistentVersionsStayFixed() {
+        PersistentAVLTree<Integer> empty = PersistentAVLTree.empty();
+        PersistentAVLTree<Integer> first = empty;
+        for (int i = 0; i < 100; i++) first = first.add(i);
+        PersistentAVLTree<Integer> second = first;
+        for (int i = 0; i < 100; i += 2) second = second.remove(i);
+        second = second.add(1000);
+
+        assertEquals(0, empty.size());
+        assertEquals(100, first.size());
+        assertEquals(51, second.size());
+        for (int i = 0; i < 100; i++) {
+            assertTrue(first.contains(i));
+            assertEquals(i % 2 == 1, second.contains(i));
+        }
+        assertFalse(first.contains(1000));
+        assertTrue(second.contains(1000));
+
+        ArrayList<Integer> items = new ArrayList<>();
+        first.forEach(items::add);
+        for (int i = 0; i < 100; i++) assertEquals(i, (int) items.get(i));
+    }
+
+    /**
+     * Lists the entries of a snapshot with their counts
+     * @param snapshot the snapshot
+     * @return one "name|county|gender|count" String per entry, in order
+     */
+    private static List<String> entries(YearSnapshot snapshot) {
+        ArrayList<String> entries = new ArrayList<>();
+        snapshot.forEach(name -> entries.add(name.getName() + "|" + name.getCounty() + "|" + name.getGender() + "|" + name.getCount()));
+        return entries;
+    }
+}